@@ -0,0 +1,75 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// shared setup: the application context without a web server, backed by the in-memory H2 database
+final class BenchmarkSupport {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext startContext(String... properties) {
+        return startContext(WebApplicationType.NONE, properties);
+    }
+
+    // starts Tomcat on a random port, see local.server.port
+    static ConfigurableApplicationContext startWebContext(String... properties) {
+        return startContext(WebApplicationType.SERVLET, properties);
+    }
+
+    // properties are passed as command line arguments so they take precedence over application.yaml
+    private static ConfigurableApplicationContext startContext(WebApplicationType webApplicationType, String... properties) {
+        List<String> args = new ArrayList<>(List.of("--spring.jpa.show-sql=false", "--logging.level.root=warn", "--server.port=0"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    static Employee employee(int i) {
+        return Employee.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email("employee" + i + "@gmail.com")
+                .build();
+    }
+
+    static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = employee(i);
+            employee.setId(i + 1);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    // inserts employees 0..count-1, returns their generated ids in insertion order
+    static long[] seed(EmployeeRepository employeeRepository, int count) {
+        long[] ids = new long[count];
+        List<Employee> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(employee(i));
+            if (batch.size() == SEED_BATCH_SIZE || i == count - 1) {
+                List<Employee> saved = employeeRepository.saveAll(batch);
+                for (int j = 0; j < saved.size(); j++) {
+                    ids[i - saved.size() + 1 + j] = saved.get(j).getId();
+                }
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,73 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// cost of the metrics: compare the instrumented=true and instrumented=false scores of each benchmark,
+// the difference should stay below 1%. instrumented=false turns off MetricsConfig (@Timed, statement counting)
+// and the repository invocation timers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeMetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    private boolean instrumented;
+
+    @Param({"10000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeServiceImpl employeeService;
+    private HttpClient httpClient;
+    private String baseUri;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSupport.startWebContext(
+                "employee.metrics.enabled=" + instrumented,
+                "management.metrics.data.repository.autotime.enabled=" + instrumented);
+        employeeService = context.getBean(EmployeeServiceImpl.class);
+        ids = BenchmarkSupport.seed(context.getBean(EmployeeRepository.class), employees);
+        httpClient = HttpClient.newHttpClient();
+        baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/employees/";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    // service timer plus repository timer
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    // adds the per-request statement count, mostly cache hits as in production
+    @Benchmark
+    public String getEmployeeByIdOverHttp() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + randomId())).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
@@ -0,0 +1,109 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// every EmployeeRepository query variant against H2, the name lookups show which of them to keep
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class EmployeeRepositoryBenchmark {
+
+    @Param({"10000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSupport.startContext();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        ids = BenchmarkSupport.seed(employeeRepository, employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        long id;
+        String firstName;
+        String lastName;
+        String email;
+
+        @Setup(Level.Invocation)
+        public void pick(EmployeeRepositoryBenchmark benchmark) {
+            int i = ThreadLocalRandom.current().nextInt(benchmark.employees);
+            Employee employee = BenchmarkSupport.employee(i);
+            id = benchmark.ids[i];
+            firstName = employee.getFirstName();
+            lastName = employee.getLastName();
+            email = employee.getEmail();
+        }
+    }
+
+    @Benchmark
+    public Optional<Employee> findById(Lookup lookup) {
+        return employeeRepository.findById(lookup.id);
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail(Lookup lookup) {
+        return employeeRepository.findByEmail(lookup.email);
+    }
+
+    @Benchmark
+    public Set<String> findExistingEmails(Lookup lookup) {
+        return employeeRepository.findExistingEmails(List.of(lookup.email, "missing@gmail.com"));
+    }
+
+    @Benchmark
+    public List<Employee> findNextPage(Lookup lookup) {
+        return employeeRepository.findNextPage(lookup.id, PageRequest.ofSize(100));
+    }
+
+    @Benchmark
+    public Employee jpqlIndexParams(Lookup lookup) {
+        return employeeRepository.findByJPQL(lookup.firstName, lookup.lastName);
+    }
+
+    @Benchmark
+    public Employee jpqlNamedParams(Lookup lookup) {
+        return employeeRepository.findByJPQLNamedParams(lookup.firstName, lookup.lastName);
+    }
+
+    @Benchmark
+    public Employee nativeIndexParams(Lookup lookup) {
+        return employeeRepository.findByNativeSQL(lookup.firstName, lookup.lastName);
+    }
+
+    @Benchmark
+    public Employee nativeNamedParams(Lookup lookup) {
+        return employeeRepository.findByNativeSQLNamedParams(lookup.firstName, lookup.lastName);
+    }
+
+    @Benchmark
+    public Slice<Employee> prefixSearch(Lookup lookup) {
+        return employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith(lookup.lastName, lookup.firstName,
+                PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id")));
+    }
+}
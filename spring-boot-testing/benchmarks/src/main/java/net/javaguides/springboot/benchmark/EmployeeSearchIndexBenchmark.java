@@ -0,0 +1,60 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.search.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// query latency of the full-text employee index for exact, prefix (type-ahead) and misspelled terms,
+// no Spring context is needed since the index is filled directly
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSearchIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int employees;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Employee> all = BenchmarkSupport.employees(employees);
+        employeeSearchIndex = new EmployeeSearchIndex();
+        employeeSearchIndex.rebuild(all::forEach);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        employeeSearchIndex.close();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(employees);
+    }
+
+    @Benchmark
+    public List<EmployeeSearchHit> exactTerm() {
+        return employeeSearchIndex.search("Last" + randomIndex(), 10);
+    }
+
+    // a five digit prefix such as last12345 matches up to eleven employees
+    @Benchmark
+    public List<EmployeeSearchHit> prefix() {
+        return employeeSearchIndex.search("Last" + (10000 + randomIndex() % 90000), 10);
+    }
+
+    // one character dropped, found through the fuzzy clause only
+    @Benchmark
+    public List<EmployeeSearchHit> typo() {
+        return employeeSearchIndex.search("Lst" + randomIndex(), 10);
+    }
+}
@@ -0,0 +1,66 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// read throughput of EmployeeRepository with the Hibernate second-level and query cache (l2Cache=true) and without it,
+// run with -t to see how it scales with concurrent readers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSecondLevelCacheBenchmark {
+
+    @Param({"true", "false"})
+    private boolean l2Cache;
+
+    @Param({"10000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSupport.startContext("employee.l2-cache.enabled=" + l2Cache);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        ids = BenchmarkSupport.seed(employeeRepository, employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(ids.length);
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById(ids[randomIndex()]);
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail(BenchmarkSupport.employee(randomIndex()).getEmail());
+    }
+
+    @Benchmark
+    public Slice<Employee> findByNamePrefix() {
+        return employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith("Last" + randomIndex(), "",
+                PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id")));
+    }
+}
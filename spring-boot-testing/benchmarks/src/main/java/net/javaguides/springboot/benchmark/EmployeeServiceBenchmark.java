@@ -0,0 +1,88 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// EmployeeServiceImpl operations against H2, without the caching decorator in front of it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    @Param({"10000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeServiceImpl employeeService;
+    private long[] ids;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSupport.startContext();
+        employeeService = context.getBean(EmployeeServiceImpl.class);
+        ids = BenchmarkSupport.seed(context.getBean(EmployeeRepository.class), employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        long n = sequence.incrementAndGet();
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("New" + n)
+                .lastName("Hire" + n)
+                .email("new.hire" + n + "@gmail.com")
+                .build());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeesPage() {
+        return employeeService.getEmployeesPage(randomId(), 100);
+    }
+
+    @Benchmark
+    public Slice<EmployeeView> searchEmployeesByName() {
+        return employeeService.searchEmployeesByName("Last" + ThreadLocalRandom.current().nextInt(employees), null, 0, 20);
+    }
+
+    @Benchmark
+    public Employee updateEmployee() {
+        Employee employee = employeeService.getEmployeeById(randomId()).orElseThrow();
+        employee.setFirstName("Updated" + sequence.incrementAndGet());
+        return employeeService.updateEmployee(employee);
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public void streamAllEmployees(Blackhole blackhole) {
+        employeeService.streamAllEmployees(blackhole::consume);
+    }
+}
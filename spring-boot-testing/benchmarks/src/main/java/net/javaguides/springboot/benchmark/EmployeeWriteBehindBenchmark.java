@@ -0,0 +1,69 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ingest throughput of the primary EmployeeService with one transaction per write (mode=sync) and with
+// write-behind batching (queued: return once queued, durable: return once the batch is committed).
+// Run with -t 16 or more, write-behind only pays off with concurrent writers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeWriteBehindBenchmark {
+
+    @Param({"sync", "queued", "durable"})
+    private String mode;
+
+    @Param({"10000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private long[] ids;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSupport.startContext(
+                "employee.write-behind.enabled=" + !mode.equals("sync"),
+                "employee.write-behind.acknowledgement=" + (mode.equals("durable") ? "durable" : "queued"),
+                "employee.search.rebuild-on-startup=false");
+        employeeService = context.getBean(EmployeeService.class);
+        ids = BenchmarkSupport.seed(context.getBean(EmployeeRepository.class), employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // closing drains the queue, so queued writes are part of the measured work
+        context.close();
+    }
+
+    @Benchmark
+    public Employee createEmployee() {
+        return employeeService.saveEmployee(BenchmarkSupport.employee(employees + created.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Employee updateEmployee() {
+        // read-modify-write like PUT, two threads picking the same id may still conflict
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        Employee employee = employeeService.getEmployeeById(id).orElseThrow();
+        employee.setFirstName("Updated" + ThreadLocalRandom.current().nextInt());
+        try {
+            return employeeService.updateEmployee(employee);
+        } catch (OptimisticLockingFailureException e) {
+            return null;
+        }
+    }
+}
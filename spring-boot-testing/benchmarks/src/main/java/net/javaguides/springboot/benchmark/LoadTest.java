@@ -0,0 +1,134 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test comparing the default Tomcat thread pool with the virtual-thread mode.
+ *
+ * For each mode the application is started on a random port and seeded, then every client (a virtual
+ * thread in this process) sends GET requests back to back for the warmup and measurement periods.
+ * Throughput and latency percentiles of the measurement period are printed and written to load-test-result.json.
+ *
+ * Run with: java -cp benchmarks/target/benchmarks.jar net.javaguides.springboot.benchmark.LoadTest
+ *     [clients=5000] [warmup=10] [duration=30] [employees=10000] [path=/api/employees?size=20]
+ */
+public class LoadTest {
+
+    private static final Map<String, String> MODES = Map.of(
+            "platform-threads", "employee.virtual-threads.enabled=false",
+            "virtual-threads", "employee.virtual-threads.enabled=true");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "clients", "5000", "warmup", "10", "duration", "30", "employees", "10000", "path", "/api/employees?size=20"));
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : List.of("platform-threads", "virtual-threads")) {
+            results.add(run(mode, options));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(new File("load-test-result.json"), results);
+        System.out.println(objectMapper.writeValueAsString(results));
+    }
+
+    private static Map<String, Object> run(String mode, Map<String, String> options) throws Exception {
+        int clients = Integer.parseInt(options.get("clients"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startWebContext(
+                MODES.get(mode),
+                // Tomcat's default of 8192 connections would be enough, raise it so it is never the limiting factor
+                "server.tomcat.max-connections=" + Math.max(8192, clients * 2),
+                "server.tomcat.accept-count=" + clients)) {
+            BenchmarkSupport.seed(context.getBean(EmployeeRepository.class), Integer.parseInt(options.get("employees")));
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + options.get("path"));
+
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+            AtomicLong errors = new AtomicLong();
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long measureUntil = measureFrom + duration.toNanos();
+
+            HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    clientThreads.submit(() -> client(httpClient, uri, measureFrom, measureUntil, latencies, errors));
+                }
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", mode);
+            result.put("clients", clients);
+            result.put("requests", latencies.getTotalCount());
+            result.put("errors", errors.get());
+            result.put("throughputPerSecond", latencies.getTotalCount() / (double) duration.toSeconds());
+            result.put("p50Millis", latencies.getValueAtPercentile(50) / 1e6);
+            result.put("p99Millis", latencies.getValueAtPercentile(99) / 1e6);
+            result.put("p999Millis", latencies.getValueAtPercentile(99.9) / 1e6);
+            result.put("maxMillis", latencies.getMaxValue() / 1e6);
+            return result;
+        }
+    }
+
+    private static void client(HttpClient httpClient, URI uri, long measureFrom, long measureUntil,
+                               Histogram latencies, AtomicLong errors) {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        // spread the first requests so the clients do not all connect within the same millisecond
+        sleep(ThreadLocalRandom.current().nextLong(1000));
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            boolean measured = now >= measureFrom;
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    throw new IOException("HTTP " + response.statusCode());
+                }
+                if (measured) {
+                    latencies.recordValue(Math.min(System.nanoTime() - now, latencies.getHighestTrackableValue()));
+                }
+            } catch (IOException e) {
+                if (measured) {
+                    errors.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
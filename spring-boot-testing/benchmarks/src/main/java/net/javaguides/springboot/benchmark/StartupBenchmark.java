@@ -0,0 +1,159 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start comparison: time from launching a new JVM (or the native executable) until the first request is
+ * answered with 200, the moment an autoscaled instance could take traffic. Every run starts a fresh process on
+ * a free port and polls it, min, median and max per mode are printed and written to startup-result.json.
+ *
+ * Modes: jar (the exec jar), lazy (the exec jar with the lazy profile), aot and aot-cds (the plain jar of
+ * mvn -Paot package, without and with its class data sharing archive) and native (mvn -Pnative native:compile).
+ * Modes whose build output is missing are skipped, the process output of each mode goes to startup-<mode>.log
+ * next to the build output.
+ *
+ * Run with: java -cp benchmarks/target/benchmarks.jar net.javaguides.springboot.benchmark.StartupBenchmark
+ *     [runs=5] [target=spring-boot-testing/target] [path=/api/employees?size=1] [timeout=120]
+ */
+public class StartupBenchmark {
+
+    private static final String ARTIFACT = "spring-boot-testing";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "runs", "5", "target", ARTIFACT + "/target", "path", "/api/employees?size=1", "timeout", "120"));
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+
+        File target = new File(options.get("target"));
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, List<String>> mode : modes(target).entrySet()) {
+            if (mode.getValue().isEmpty()) {
+                System.out.println("Skipping " + mode.getKey() + ", its build output is missing in " + target);
+                continue;
+            }
+            results.add(run(mode.getKey(), mode.getValue(), target, options));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(new File("startup-result.json"), results);
+        System.out.println(objectMapper.writeValueAsString(results));
+    }
+
+    // the command of every mode, empty when the files it needs have not been built
+    private static Map<String, List<String>> modes(File target) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Optional<File> execJar = jar(target, true);
+        Optional<File> plainJar = jar(target, false).filter(jar -> new File(target, "lib").isDirectory());
+        File archive = new File(target, "application.jsa");
+        File nativeExecutable = new File(target, ARTIFACT);
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jar", execJar.map(jar -> List.of(java, "-jar", jar.getPath())).orElse(List.of()));
+        modes.put("lazy", execJar.map(jar -> List.of(java, "-jar", jar.getPath(), "--spring.profiles.active=lazy"))
+                .orElse(List.of()));
+        modes.put("aot", plainJar.map(jar -> List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.getPath()))
+                .orElse(List.of()));
+        modes.put("aot-cds", plainJar.filter(jar -> archive.isFile())
+                .map(jar -> List.of(java, "-XX:SharedArchiveFile=" + archive.getPath(), "-Dspring.aot.enabled=true",
+                        "-jar", jar.getPath()))
+                .orElse(List.of()));
+        modes.put("native", nativeExecutable.canExecute() ? List.of(nativeExecutable.getPath()) : List.of());
+        return modes;
+    }
+
+    private static Optional<File> jar(File target, boolean exec) {
+        File[] jars = target.listFiles((dir, name) -> name.startsWith(ARTIFACT + "-") && name.endsWith(".jar")
+                && name.endsWith("-exec.jar") == exec && !name.endsWith("-sources.jar"));
+        return jars == null ? Optional.empty() : Arrays.stream(jars).findFirst();
+    }
+
+    private static Map<String, Object> run(String mode, List<String> command, File target,
+                                           Map<String, String> options) throws Exception {
+        int runs = Integer.parseInt(options.get("runs"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.get("timeout")));
+        File log = new File(target, "startup-" + mode + ".log");
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstRequest(mode, command, options.get("path"), timeout, log, httpClient);
+            System.out.printf("%s run %d: first 200 after %d ms%n", mode, i + 1, millis[i]);
+        }
+        Arrays.sort(millis);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode);
+        result.put("runs", runs);
+        result.put("minMillis", millis[0]);
+        result.put("medianMillis", millis[runs / 2]);
+        result.put("maxMillis", millis[runs - 1]);
+        return result;
+    }
+
+    private static long timeToFirstRequest(String mode, List<String> command, String path, Duration timeout,
+                                           File log, HttpClient httpClient) throws Exception {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+        try {
+            long deadline = started + timeout.toNanos();
+            while (true) {
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(mode + " did not answer within " + timeout + ", see " + log);
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class SpringBootReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(SpringBootReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,64 @@
+package net.javaguides.springboot.reactive.controller;
+
+
+import net.javaguides.springboot.reactive.model.Employee;
+import net.javaguides.springboot.reactive.service.ReactiveEmployeeService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService employeeService;
+
+    private ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+        return employeeService.saveEmployee(employee);
+    }
+
+    // a JSON array by default, with Accept: application/x-ndjson every row is flushed as it arrives,
+    // either way rows are only read from the database as fast as the client consumes them
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Employee> getAllEmployees(){
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId){
+        return employeeService.getEmployeeById(employeeId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee (@PathVariable("id") long employeeId, @RequestBody Employee employee)
+    {
+
+        return employeeService.getEmployeeById(employeeId)
+            .flatMap(savedEmployee -> {
+                savedEmployee.setFirstName(employee.getFirstName());
+                savedEmployee.setLastName(employee.getLastName());
+                savedEmployee.setEmail(employee.getEmail());
+
+                return employeeService.updateEmployee(savedEmployee);
+            })
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("{id}")
+    public  Mono<ResponseEntity<String>> deleteEmployee (@PathVariable("id") long employeeId){
+        return employeeService.deleteEmployee(employeeId)
+                .thenReturn(new ResponseEntity<String>("Employee deleted succesfully!", HttpStatus.OK));
+    }
+}
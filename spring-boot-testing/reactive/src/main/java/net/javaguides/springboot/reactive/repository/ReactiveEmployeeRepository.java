@@ -0,0 +1,18 @@
+package net.javaguides.springboot.reactive.repository;
+
+import net.javaguides.springboot.reactive.model.Employee;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeRepository extends R2dbcRepository<Employee, Long> {
+    // emails are stored normalized, see Employee#normalizeEmail
+    default Mono<Employee> findByEmail(String email) {
+        return findByEmailEquals(Employee.normalizeEmail(email));
+    }
+
+    Mono<Employee> findByEmailEquals(String email);
+
+    // rows are emitted as the subscriber requests them, so a slow client slows the read instead of filling memory
+    Flux<Employee> findAllByOrderByIdAsc();
+}
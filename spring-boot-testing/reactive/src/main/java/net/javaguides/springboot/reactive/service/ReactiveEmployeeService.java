@@ -0,0 +1,17 @@
+package net.javaguides.springboot.reactive.service;
+
+import net.javaguides.springboot.reactive.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+
+    Flux<Employee> getAllEmployees();
+
+    Mono<Employee> getEmployeeById(long id);
+
+    Mono<Employee> updateEmployee(Employee employeeToUpdate);
+
+    Mono<Void> deleteEmployee(long id);
+}
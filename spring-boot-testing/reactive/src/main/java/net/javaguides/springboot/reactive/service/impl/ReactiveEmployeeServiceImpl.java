@@ -0,0 +1,50 @@
+package net.javaguides.springboot.reactive.service.impl;
+
+import net.javaguides.springboot.reactive.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.reactive.model.Employee;
+import net.javaguides.springboot.reactive.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.reactive.service.ReactiveEmployeeService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    // like the blocking service, duplicates are rejected by the unique email constraint instead of a pre-check SELECT
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        employee.setEmail(Employee.normalizeEmail(employee.getEmail()));
+        return employeeRepository.save(employee)
+                .onErrorMap(DataIntegrityViolationException.class, e -> new ResourceAlreadyExistsException(
+                        "Employee already exists with given email: " + employee.getEmail(), e));
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.findAllByOrderByIdAsc();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(Employee employeeToUpdate) {
+        return saveEmployee(employeeToUpdate);
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee(long id) {
+        return employeeRepository.deleteById(id);
+    }
+}
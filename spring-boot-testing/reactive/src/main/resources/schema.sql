@@ -0,0 +1,9 @@
+create table if not exists employees (
+    id bigint auto_increment primary key,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    constraint uk_employees_email unique (email)
+);
+
+create index if not exists idx_employees_last_first_name on employees (last_name, first_name);
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class SpringBootReactiveApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
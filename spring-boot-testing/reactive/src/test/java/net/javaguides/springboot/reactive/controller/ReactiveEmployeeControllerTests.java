@@ -0,0 +1,146 @@
+package net.javaguides.springboot.reactive.controller;
+
+
+import net.javaguides.springboot.reactive.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.reactive.model.Employee;
+import net.javaguides.springboot.reactive.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@WebFluxTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReactiveEmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    private final Employee employee = Employee.builder()
+            .id(1)
+            .firstName("Ramesh")
+            .lastName("Fadatare")
+            .email("ramesh@gmail.com")
+            .build();
+
+    // JUnit test for createEmployee REST API
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for createEmployee REST API")
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+        // given - preconditions or setup
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    // JUnit test for createEmployee REST API with an email that is already taken
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for createEmployee REST API, duplicate email")
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409() {
+        // given - preconditions or setup
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willReturn(Mono.error(new ResourceAlreadyExistsException("Employee already exists with given email: ramesh@gmail.com")));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    // JUnit test for getAllEmployees REST API streamed as NDJSON
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for getAllEmployees REST API, NDJSON")
+    public void givenListOfEmployees_whenGetAllEmployeesAsNdjson_thenStreamEmployees() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().id(2).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, employee1));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class).hasSize(2);
+    }
+
+    // JUnit test for GET employee by id REST Api, -ve
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for GET employee by id REST Api, -ve")
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
+        // given - preconditions or setup
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        webTestClient.get().uri("/api/employees/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    // JUnit test for update employee REST API , +ve
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for update employee REST API, +ve")
+    public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdatedEmployeeObject() {
+        // given - preconditions or setup
+        Employee updatedEmployee = Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee));
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        webTestClient.put().uri("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Ram")
+                .jsonPath("$.email").isEqualTo("ram@gmail.com");
+    }
+
+    // JUnit test for delete employee REST API
+    @Test
+    @Order(6)
+    @DisplayName("JUnit test for delete employee REST API")
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() {
+        // given - preconditions or setup
+        given(employeeService.deleteEmployee(1L)).willReturn(Mono.empty());
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        webTestClient.delete().uri("/api/employees/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,102 @@
+package net.javaguides.springboot.reactive.repository;
+
+import net.javaguides.springboot.reactive.model.Employee;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReactiveEmployeeRepositoryTests {
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        // R2DBC tests are not rolled back, start every test from an empty table
+        employeeRepository.deleteAll().block();
+        employee = Employee.builder().firstName("Ramesh").lastName("Kakar").email("ramesh@kakar.com").build();
+    }
+
+    // JUnit test for save Employee Operation
+    @Order(1)
+    @Test
+    @DisplayName("JUnit test for save employee operation")
+    public void givenEmployeeObject_whenSave_thenReturnSavedEmployee() {
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeRepository.save(employee))
+                .assertNext(savedEmployee -> assertThat(savedEmployee.getId()).isGreaterThan(0))
+                .verifyComplete();
+    }
+
+    // JUnit test for get employee by email operation
+    @Order(2)
+    @Test
+    @DisplayName("JUnit test for get employee by email operation")
+    public void givenEmailInOtherCase_whenFindByEmail_thenReturnEmployeeObject() {
+        // given - preconditions or setup
+        employeeRepository.save(employee).block();
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeRepository.findByEmail("Ramesh@Kakar.com"))
+                .assertNext(employeeDB -> assertThat(employeeDB.getId()).isEqualTo(employee.getId()))
+                .verifyComplete();
+    }
+
+    // JUnit test for streaming all employees with backpressure
+    @Order(3)
+    @Test
+    @DisplayName("JUnit test for streaming all employees with backpressure")
+    public void givenEmployeesList_whenFindAllOrderedById_thenEmitOnDemand() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("John").lastName("Smith").email("john@cena.com").build();
+        employeeRepository.save(employee).block();
+        employeeRepository.save(employee1).block();
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeRepository.findAllByOrderByIdAsc(), 1)
+                .assertNext(first -> assertThat(first.getId()).isEqualTo(employee.getId()))
+                .thenRequest(1)
+                .assertNext(second -> assertThat(second.getId()).isEqualTo(employee1.getId()))
+                .verifyComplete();
+    }
+
+    // JUnit test for the unique email constraint
+    @Order(4)
+    @Test
+    @DisplayName("JUnit test for the unique email constraint")
+    public void givenDuplicateEmail_whenSave_thenThrowsException() {
+        // given - preconditions or setup
+        employeeRepository.save(employee).block();
+        Employee duplicate = Employee.builder().firstName("Ram").lastName("Kakar").email("ramesh@kakar.com").build();
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeRepository.save(duplicate))
+                .verifyError(DataIntegrityViolationException.class);
+    }
+
+    // JUnit test for delete employee operation
+    @Order(5)
+    @Test
+    @DisplayName("JUnit test for delete employee operation")
+    public void givenEmployeeObject_whenDelete_thenRemoveEmployee() {
+        // given - preconditions or setup
+        employeeRepository.save(employee).block();
+
+        // when - actions or the behaviour that we are going test
+        employeeRepository.deleteById(employee.getId()).block();
+
+        // then - verify the output
+        StepVerifier.create(employeeRepository.findById(employee.getId()))
+                .verifyComplete();
+    }
+}
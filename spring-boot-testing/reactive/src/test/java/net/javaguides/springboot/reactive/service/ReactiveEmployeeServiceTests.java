@@ -0,0 +1,95 @@
+package net.javaguides.springboot.reactive.service;
+
+import net.javaguides.springboot.reactive.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.reactive.model.Employee;
+import net.javaguides.springboot.reactive.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.reactive.service.impl.ReactiveEmployeeServiceImpl;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReactiveEmployeeServiceTests {
+
+    @Mock
+    private ReactiveEmployeeRepository employeeRepository;
+    @InjectMocks
+    private ReactiveEmployeeServiceImpl employeeService;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("Ramesh@Gmail.com").build();
+    }
+
+    // JUnit test for saveEmployee method
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for saveEmployee method")
+    public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeWithNormalizedEmail() {
+        // given - preconditions or setup
+        given(employeeRepository.save(employee)).willReturn(Mono.just(employee));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeService.saveEmployee(employee))
+                .expectNextMatches(savedEmployee -> savedEmployee.getEmail().equals("ramesh@gmail.com"))
+                .verifyComplete();
+    }
+
+    // JUnit test for saveEmployee method
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for saveEmployee method WHICH THROWS Exception")
+    public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
+        // given - preconditions or setup
+        given(employeeRepository.save(employee)).willReturn(Mono.error(new DataIntegrityViolationException("duplicate email")));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeService.saveEmployee(employee))
+                .verifyError(ResourceAlreadyExistsException.class);
+    }
+
+    // JUnit test for getAllEmployees Method
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for getAllEmployees Method")
+    public void givenEmployeesList_whenGetAllEmployees_thenReturnEmployeesFlux() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        given(employeeRepository.findAllByOrderByIdAsc()).willReturn(Flux.just(employee, employee1));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        StepVerifier.create(employeeService.getAllEmployees())
+                .expectNext(employee, employee1)
+                .verifyComplete();
+    }
+
+    // JUnit test for deleteEmployee Method
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for deleteEmployee Method")
+    public void givenEmployeeID_whenDeleteEmployee_thenNothing() {
+        // given - preconditions or setup
+        given(employeeRepository.deleteById(1L)).willReturn(Mono.empty());
+
+        // when - actions or the behaviour that we are going test
+        StepVerifier.create(employeeService.deleteEmployee(1L))
+                .verifyComplete();
+
+        // then - verify the output
+        verify(employeeRepository, times(1)).deleteById(1L);
+    }
+}
@@ -0,0 +1,96 @@
+package net.javaguides.springboot.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the requests in flight at a limit derived from their latency, the gradient algorithm of Netflix'
+ * concurrency-limits: a long-term average of the response time stands for the latency without queueing. While
+ * responses stay near it the limit grows by a small queue allowance, once they get slower than tolerance times
+ * the average it shrinks in proportion, by at most half per sample. Requests beyond the limit are turned away
+ * instead of queueing for a database connection.
+ *
+ * In-flight count, limit and average are atomics updated by compare-and-set, nothing blocks.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // samples the long-term average spans, it only follows a lasting change in latency
+    private static final int AVERAGE_WINDOW = 600;
+
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // double bits, kept fractional so small gradients add up over several samples
+    private final AtomicLong estimatedLimit;
+
+    // double bits, nanoseconds, 0 until the first sample
+    private final AtomicLong averageRtt = new AtomicLong(Double.doubleToLongBits(0));
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= initial <= max and a tolerance of at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimatedLimit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // ends an acquired request and adjusts the limit to how long it took
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        double shortRtt = Math.max(1, rttNanos);
+        double longRtt = Double.longBitsToDouble(averageRtt.updateAndGet(bits -> {
+            double average = Double.longBitsToDouble(bits);
+            average = average == 0 ? shortRtt : average + (shortRtt - average) * 2 / (AVERAGE_WINDOW + 1);
+            // after a slow phase the average is left too high, let it come down faster than the window would
+            if (average / shortRtt > 2) {
+                average *= 0.95;
+            }
+            return Double.doubleToLongBits(average);
+        }));
+        estimatedLimit.updateAndGet(bits -> {
+            double limit = Double.longBitsToDouble(bits);
+            // far below the limit the latency says nothing about it
+            if (inFlightBefore < limit / 2) {
+                return bits;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            return Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, newLimit)));
+        });
+    }
+
+    // ends an acquired request whose duration says nothing about the load, e.g. a long-poll that went async
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(estimatedLimit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,193 @@
+package net.javaguides.springboot.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Sheds load on /api/employees before it reaches EmployeeService, first of all filters:
+ * a client over its own rate gets 429, requests over the global rate or the adaptive concurrency limit get 503,
+ * both with Retry-After. Each rejection is counted as employee.admission.rejected{reason}.
+ *
+ * Clients are told apart by clientHeader (e.g. an API key) when its value is one of clientKeys, by remote address
+ * otherwise: a caller making up a new key per request would get a fresh bucket each time and evict the buckets of
+ * real clients. Buckets expire once unused long enough to have filled up again.
+ *
+ * A request holds its concurrency slot until its response is complete, for streamed responses that is when the
+ * async request completes, not when the first dispatch returns. The long-poll of the change feed is the exception:
+ * it waits for commits without a thread, its slot is freed as soon as it goes async.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final String PATH = "/api/employees";
+
+    private static final String LONG_POLL_PATH = PATH + "/changes";
+
+    // concurrency is freed as soon as any request completes, a second is the shortest Retry-After there is
+    private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+
+    private final Cache<String, TokenBucket> clientBuckets;
+
+    private final Function<String, TokenBucket> newClientBucket;
+
+    private final TokenBucket globalBucket;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final String clientHeader;
+
+    private final Set<String> clientKeys;
+
+    private final Counter clientRateRejections;
+
+    private final Counter globalRateRejections;
+
+    private final Counter concurrencyRejections;
+
+    public AdmissionControlFilter(Cache<String, TokenBucket> clientBuckets, Function<String, TokenBucket> newClientBucket,
+                                  TokenBucket globalBucket, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                  String clientHeader, Set<String> clientKeys, MeterRegistry meterRegistry) {
+        this.clientBuckets = clientBuckets;
+        this.newClientBucket = newClientBucket;
+        this.globalBucket = globalBucket;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientHeader = clientHeader;
+        this.clientKeys = Set.copyOf(clientKeys);
+        this.clientRateRejections = rejections("client-rate", meterRegistry);
+        this.globalRateRejections = rejections("global-rate", meterRegistry);
+        this.concurrencyRejections = rejections("concurrency", meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        return !(path.equals(PATH) || path.startsWith(PATH + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        long wait = clientBuckets.get(clientOf(request), newClientBucket).tryAcquire(now);
+        if (wait > 0) {
+            clientRateRejections.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1,
+                    "Too many requests from this client");
+            return;
+        }
+        wait = globalBucket.tryAcquire(now);
+        if (wait > 0) {
+            globalRateRejections.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.NANOSECONDS.toSeconds(wait) + 1,
+                    "Too many requests");
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyRejections.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, CONCURRENCY_RETRY_AFTER_SECONDS, "Too many requests in progress");
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean completed = false;
+        boolean releasedOnAsyncCompletion = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = !request.isAsyncStarted();
+            // a streamed response is still being written, its slot is held until the async request completes
+            if (!completed && !pathOf(request).equals(LONG_POLL_PATH)) {
+                request.getAsyncContext().addListener(new AsyncRelease(started));
+                releasedOnAsyncCompletion = true;
+            }
+        } finally {
+            if (completed) {
+                concurrencyLimiter.release(System.nanoTime() - started);
+            } else if (!releasedOnAsyncCompletion) {
+                // a long-poll returns here while it waits, its duration is not the service's latency
+                concurrencyLimiter.releaseWithoutSample();
+            }
+        }
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+        return client != null && clientKeys.contains(client) ? client : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(status.value(), message);
+    }
+
+    // containers follow an error or a timeout with complete, the slot is released by whichever event comes first
+    private class AsyncRelease implements AsyncListener {
+
+        private final long started;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        AsyncRelease(long started) {
+            this.started = started;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the listener is not carried over to a restarted async cycle, keep it
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrencyLimiter.release(System.nanoTime() - started);
+            }
+        }
+    }
+
+    private static Counter rejections(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("employee.admission.rejected")
+                .description("Requests to /api/employees turned away before reaching EmployeeService")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
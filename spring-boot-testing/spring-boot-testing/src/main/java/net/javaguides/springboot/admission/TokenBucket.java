@@ -0,0 +1,46 @@
+package net.javaguides.springboot.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket refilled at a steady rate up to burst tokens, kept as a single timestamp (the generic cell rate
+ * algorithm): the time at which the bucket would be full again. Taking a token is one compare-and-set, so
+ * concurrent requests never wait on each other for the bucket.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    // when every token taken so far has been refilled, on the System.nanoTime() clock
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double tokensPerSecond, int burst) {
+        if (tokensPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("A token bucket needs a positive rate and a burst of at least one token");
+        }
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = nanosPerToken * burst;
+    }
+
+    // takes a token, returns 0 when one was available and otherwise how many nanoseconds until one will be
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // how long an unused bucket takes to fill up, after that it is as good as a new one
+    public long refillNanos() {
+        return burstNanos;
+    }
+}
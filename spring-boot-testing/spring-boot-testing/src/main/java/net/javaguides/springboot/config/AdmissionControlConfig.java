@@ -0,0 +1,66 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.admission.AdaptiveConcurrencyLimiter;
+import net.javaguides.springboot.admission.AdmissionControlFilter;
+import net.javaguides.springboot.admission.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Opt-in (employee.admission.enabled=true): rate limits and adaptive concurrency limiting in front of the
+ * employee endpoints, see AdmissionControlFilter. The concurrency limit and the requests in flight are published
+ * as employee.admission.limit and employee.admission.in-flight, the limit should settle somewhat above the
+ * Hikari pool size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    // clients that were quiet this long have a full bucket again, dropping it changes nothing
+    private static final Duration MINIMUM_CLIENT_IDLE_TIME = Duration.ofMinutes(1);
+
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(
+            @Value("${employee.admission.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${employee.admission.concurrency.min-limit:4}") int minLimit,
+            @Value("${employee.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${employee.admission.concurrency.tolerance:1.5}") double tolerance,
+            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+        Gauge.builder("employee.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("employee.admission.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(
+            @Value("${employee.admission.client-rate:50}") double clientRate,
+            @Value("${employee.admission.client-burst:100}") int clientBurst,
+            @Value("${employee.admission.global-rate:2000}") double globalRate,
+            @Value("${employee.admission.global-burst:4000}") int globalBurst,
+            @Value("${employee.admission.client-header:}") String clientHeader,
+            @Value("${employee.admission.client-keys:}") Set<String> clientKeys,
+            @Value("${employee.admission.max-clients:100000}") long maxClients,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            MeterRegistry meterRegistry) {
+        // also rejects invalid client settings at startup rather than on the first request
+        TokenBucket clientBucket = new TokenBucket(clientRate, clientBurst);
+        Duration idleTime = Duration.ofNanos(Math.max(MINIMUM_CLIENT_IDLE_TIME.toNanos(), clientBucket.refillNanos()));
+        Cache<String, TokenBucket> clientBuckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTime)
+                .build();
+        return new AdmissionControlFilter(clientBuckets, client -> new TokenBucket(clientRate, clientBurst),
+                new TokenBucket(globalRate, globalBurst), concurrencyLimiter, clientHeader, clientKeys,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary encodings of every JSON response and request body, chosen by content negotiation:
+ * application/cbor and application/x-jackson-smile. Both are written by the application's ObjectMapper
+ * with a binary factory, so they carry exactly the fields and formats of the JSON in fewer bytes,
+ * see EmployeeWireFormatBenchmark. The employee stream is also available as application/cbor-seq,
+ * see EmployeeController.
+ *
+ * Spring MVC would register these converters by itself, but with a default ObjectMapper that ignores
+ * the spring.jackson settings.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+}
@@ -0,0 +1,122 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.javaguides.springboot.datasource.ReadYourWrites;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.CachingEmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.ForwardingEmployeeService;
+import net.javaguides.springboot.service.impl.ShardedEmployeeService;
+import net.javaguides.springboot.service.impl.SingleFlightEmployeeService;
+import net.javaguides.springboot.service.impl.WriteBehindEmployeeService;
+import net.javaguides.springboot.sharding.EmployeeShards;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// wires the EmployeeService the controllers use: the JPA backed service wrapped in its decorators
+@Configuration
+public class EmployeeServiceConfig {
+
+    @Bean
+    public AsyncCache<Long, Employee> employeeCache(@Value("${employee.cache.maximum-size:10000}") long maximumSize,
+                                                    @Value("${employee.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        // Caffeine evicts by W-TinyLFU, which keeps the hot ids of a skewed read load resident
+        AsyncCache<Long, Employee> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        // publishes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "employees"));
+        return cache;
+    }
+
+    // write-behind sits in front of the cache, so the cache is only invalidated once a batch has been committed.
+    // Sharding routes each call of the JPA backed service, single-flight deduplicates the email and name lookups,
+    // which are not cached. The cache already loads a missing id only once at a time
+    @Bean
+    @Primary
+    public EmployeeService employeeService(EmployeeServiceImpl employeeServiceImpl, AsyncCache<Long, Employee> employeeCache,
+                                           @Value("${employee.write-behind.enabled:false}") boolean writeBehind,
+                                           @Value("${employee.write-behind.capacity:10000}") int capacity,
+                                           @Value("${employee.write-behind.batch-size:500}") int batchSize,
+                                           @Value("${employee.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                           @Value("${employee.write-behind.enqueue-timeout:1s}") Duration enqueueTimeout,
+                                           @Value("${employee.write-behind.acknowledgement:durable}") WriteBehindEmployeeService.Acknowledgement acknowledgement,
+                                           @Value("${employee.single-flight.enabled:true}") boolean singleFlight,
+                                           ObjectProvider<EmployeeShards> employeeShards,
+                                           ObjectProvider<ReadYourWrites> readYourWrites,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        EmployeeShards shards = employeeShards.getIfAvailable();
+        EmployeeService employeeService = shards == null
+                ? employeeServiceImpl
+                : new ShardedEmployeeService(employeeServiceImpl, shards);
+        ReadYourWrites replicaReads = readYourWrites.getIfAvailable();
+        if (singleFlight) {
+            SingleFlightEmployeeService singleFlightService = replicaReads == null
+                    ? new SingleFlightEmployeeService(employeeService)
+                    : new SingleFlightEmployeeService(employeeService, replicaReads::isPinnedToPrimary);
+            meterRegistry.ifAvailable(registry -> registerSingleFlightMeters(singleFlightService, registry));
+            employeeService = singleFlightService;
+        }
+        if (replicaReads != null) {
+            employeeService = cacheLoadsFromPrimary(employeeService, replicaReads);
+        }
+        employeeService = new CachingEmployeeService(employeeService, employeeCache);
+        if (!writeBehind) {
+            return employeeService;
+        }
+        WriteBehindEmployeeService writeBehindService = new WriteBehindEmployeeService(employeeService, capacity,
+                batchSize, flushInterval, enqueueTimeout, acknowledgement);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("employee.write-behind.pending", writeBehindService,
+                WriteBehindEmployeeService::pendingCount).register(registry));
+        return writeBehindService;
+    }
+
+    // a replica still behind a write would have its old row cached for expire-after-write, long after the
+    // read-your-writes window. The loads go to the primary, reads that miss the cache are the minority
+    private static EmployeeService cacheLoadsFromPrimary(EmployeeService employeeService, ReadYourWrites readYourWrites) {
+        return new ForwardingEmployeeService(employeeService) {
+            @Override
+            public Optional<Employee> getEmployeeById(long id) {
+                return readYourWrites.readFromPrimary(() -> super.getEmployeeById(id));
+            }
+        };
+    }
+
+    // employee.single-flight.calls{method, result=executed|coalesced}, coalesced calls shared a query already running
+    private static void registerSingleFlightMeters(SingleFlightEmployeeService service, MeterRegistry registry) {
+        for (String method : SingleFlightEmployeeService.METHODS) {
+            FunctionCounter.builder("employee.single-flight.calls", service, s -> s.executedCount(method))
+                    .tags("method", method, "result", "executed")
+                    .register(registry);
+            FunctionCounter.builder("employee.single-flight.calls", service, s -> s.coalescedCount(method))
+                    .tags("method", method, "result", "coalesced")
+                    .register(registry);
+        }
+    }
+
+    // drains the write-behind queue while the context is still whole: the flushed writes publish events, whose
+    // listeners are gone by the time destroy methods run
+    @EventListener
+    public void onContextClosed(ContextClosedEvent event) {
+        if (event.getApplicationContext().getBean(EmployeeService.class) instanceof WriteBehindEmployeeService writeBehindService) {
+            writeBehindService.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.metrics.SqlStatementCountFilter;
+import net.javaguides.springboot.metrics.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// application metrics on top of what actuator binds by itself (HikariCP pool gauges, repository invocation timers):
+// @Timed service methods and per-request Hibernate statement counts. employee.metrics.enabled=false turns them off,
+// EmployeeMetricsOverheadBenchmark compares both settings
+@Configuration
+@ConditionalOnProperty(name = "employee.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+
+    // makes @Timed work on beans, see EmployeeServiceImpl
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public SqlStatementCountFilter sqlStatementCountFilter(SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry) {
+        return new SqlStatementCountFilter(sqlStatementCounter, meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.datasource.ReadWriteRoutingDataSource;
+import net.javaguides.springboot.datasource.ReadYourWrites;
+import net.javaguides.springboot.datasource.ReadYourWritesFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in (employee.replicas.enabled=true, or the replicas profile): replaces the auto-configured DataSource with
+ * ReadWriteRoutingDataSource, spring.datasource stays the primary and every url in employee.replicas.urls gets a
+ * pool of its own. All pools share spring.datasource's credentials and spring.datasource.hikari settings and are
+ * named primary and replica-0, replica-1, ... in the hikaricp.* metrics.
+ *
+ * Readers that must not see replication lag stay on the primary without a read-only transaction: the change feed
+ * reads outside a transaction, the delta sync only reads up to a settle horizon well behind the replicas. Loads of
+ * the id cache read from the primary, see EmployeeServiceConfig.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${employee.replicas.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new ReadYourWritesFilter(readYourWrites);
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                                 @Value("${employee.replicas.urls:}") List<String> replicaUrls,
+                                                 ReadYourWrites readYourWrites,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = DataSourcePools.pool("primary", properties.determineUrl(), properties, environment, meterRegistry);
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(DataSourcePools.pool("replica-" + i, replicaUrls.get(i), properties, environment, meterRegistry));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, readYourWrites);
+    }
+}
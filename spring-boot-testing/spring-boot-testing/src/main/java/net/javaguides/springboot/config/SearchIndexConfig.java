@@ -0,0 +1,15 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.search.EmployeeSearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// the full-text employee index, filled and kept current by EmployeeSearchIndexUpdater
+@Configuration
+public class SearchIndexConfig {
+
+    @Bean(destroyMethod = "close")
+    public EmployeeSearchIndex employeeSearchIndex() {
+        return new EmployeeSearchIndex();
+    }
+}
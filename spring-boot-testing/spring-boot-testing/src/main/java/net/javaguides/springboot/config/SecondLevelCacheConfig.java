@@ -0,0 +1,65 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import net.javaguides.springboot.model.Employee;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+// Hibernate second-level entity and query cache on Caffeine through JCache. Every region is created here
+// with its own bounds, Hibernate is told to fail on a region it does not find instead of creating an unbounded one.
+// application.yaml switches the cache off for contexts without this configuration, e.g. @DataJpaTest slices
+@Configuration
+@ConditionalOnProperty(name = "employee.l2-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${employee.l2-cache.entity.maximum-size:10000}") long entityMaximumSize,
+            @Value("${employee.l2-cache.entity.expire-after-write:10m}") Duration entityExpireAfterWrite,
+            @Value("${employee.l2-cache.query.maximum-size:1000}") long queryMaximumSize,
+            @Value("${employee.l2-cache.query.expire-after-write:5m}") Duration queryExpireAfterWrite) {
+        // an own provider instead of Caching.getCachingProvider(), whose managers are JVM-wide singletons per URI
+        // and would be shared by every application context of the test suite
+        CacheManager cacheManager = new CaffeineCachingProvider()
+                .getCacheManager(URI.create("employee-hibernate"), getClass().getClassLoader());
+        cacheManager.createCache(Employee.CACHE_REGION, region(entityMaximumSize, entityExpireAfterWrite));
+        cacheManager.createCache(Employee.QUERY_CACHE_REGION, region(queryMaximumSize, queryExpireAfterWrite));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaximumSize, queryExpireAfterWrite));
+        // last write time per table, evicting an entry here could serve stale query results
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                    @Value("${employee.sharding.enabled:false}") boolean sharded) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            // cached query results are keyed by query and parameters only, one shard's answer would be served for all
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, !sharded);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        return configuration;
+    }
+}
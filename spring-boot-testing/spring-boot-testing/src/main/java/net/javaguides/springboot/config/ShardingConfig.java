@@ -0,0 +1,90 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.sharding.EmployeeIdGenerator;
+import net.javaguides.springboot.sharding.EmployeeShards;
+import net.javaguides.springboot.sharding.ShardRebalancer;
+import net.javaguides.springboot.sharding.ShardRoutingDataSource;
+import net.javaguides.springboot.sharding.ShardSchemaIntegrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in (employee.sharding.enabled=true, or the sharding profile): spreads employees over the databases in
+ * employee.sharding.urls, see EmployeeShards. Every url gets a pool with spring.datasource's credentials and
+ * spring.datasource.hikari settings, named shard-0, shard-1, ... in the hikaricp.* metrics. The shards are numbered
+ * by their position in the list: new shards are appended and employee.sharding.rebalance-on-startup moves the
+ * employees they take over when the application starts, see ShardRebalancer.
+ *
+ * Sharding starts from empty employees tables and cannot be combined with read replicas. The outbox change feed
+ * is not available, its offsets are not ordered across shards: clients sync with GET /api/employees?changedSince.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    public ShardingConfig(@Value("${employee.replicas.enabled:false}") boolean replicas) {
+        if (replicas) {
+            throw new IllegalStateException("employee.sharding and employee.replicas cannot be enabled together");
+        }
+    }
+
+    @Bean
+    public EmployeeShards employeeShards(@Value("${employee.sharding.urls:}") List<String> shardUrls) {
+        return new EmployeeShards(shardUrls.size());
+    }
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                             @Value("${employee.sharding.urls:}") List<String> shardUrls,
+                                             EmployeeShards employeeShards,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < shardUrls.size(); i++) {
+            shards.add(DataSourcePools.pool("shard-" + i, shardUrls.get(i), properties, environment, meterRegistry));
+        }
+        return new ShardRoutingDataSource(shards, employeeShards);
+    }
+
+    // the ids carry their shard bucket, every shard but shard 0 gets its schema from ShardSchemaIntegrator
+    @Bean
+    public HibernatePropertiesCustomizer shardingCustomizer(DataSource dataSource, EmployeeShards employeeShards) {
+        ShardRoutingDataSource shards = unwrap(dataSource);
+        return hibernateProperties -> {
+            hibernateProperties.put(EmployeeIdGenerator.SHARDED_SETTING, true);
+            hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new ShardSchemaIntegrator(shards, employeeShards)));
+        };
+    }
+
+    // after the schema exists, and before the search index is built from the employees
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public ShardRebalancer shardRebalancer(DataSource dataSource, EmployeeShards employeeShards,
+                                           @Value("${employee.sharding.rebalance-on-startup:false}") boolean rebalanceOnStartup) {
+        return new ShardRebalancer(unwrap(dataSource), employeeShards, rebalanceOnStartup);
+    }
+
+    // the dataSource bean is wrapped by SlowQueryLogConfig
+    private static ShardRoutingDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(ShardRoutingDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("The DataSource does not route to the employee shards", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.logging.SlowQueryListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// replaces spring.jpa.show-sql: the DataSource is wrapped in a datasource-proxy that hands every executed statement
+// to SlowQueryListener, which logs only the slow ones through the asynchronous appender of logback-spring.xml
+@Configuration
+@ConditionalOnProperty(name = "employee.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    // static so the post processor is registered without initializing this configuration early
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${employee.slow-query.threshold:100ms}") Duration threshold,
+            @Value("${employee.slow-query.sample-rate:1.0}") double sampleRate,
+            @Value("${employee.slow-query.log-parameters:true}") boolean logParameters) {
+        SlowQueryListener listener = new SlowQueryListener(threshold, sampleRate, logParameters);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.search.EmployeeSearchIndexUpdater;
+import net.javaguides.springboot.sharding.ShardRebalancer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Cold start support for the lazy profile and the aot build profile, see pom.xml.
+ *
+ * Under spring.main.lazy-initialization the beans doing work at startup are still created eagerly, otherwise
+ * the search index would stay empty and sharded employees unbalanced until something happened to use them.
+ *
+ * employee.startup.exit-on-ready=true makes the application serve one request to itself and exit, the training
+ * run that records the classes of startup and of a first request into the class data sharing archive. Read when
+ * the application is ready rather than as a bean condition, AOT evaluates conditions at build time.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+
+    private static final String TRAINING_REQUEST_PATH = "/api/employees?size=1";
+
+    @Bean
+    public static LazyInitializationExcludeFilter startupTasksExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(EmployeeSearchIndexUpdater.class, ShardRebalancer.class);
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> exitOnReady(
+            @Value("${employee.startup.exit-on-ready:false}") boolean exitOnReady) {
+        return event -> {
+            if (!exitOnReady) {
+                return;
+            }
+            int status = trainingRequest(event.getApplicationContext().getEnvironment().getProperty("local.server.port"));
+            int exitCode = SpringApplication.exit(event.getApplicationContext());
+            System.exit(status == 200 ? exitCode : 1);
+        };
+    }
+
+    private static int trainingRequest(String port) {
+        URI uri = URI.create("http://localhost:" + port + TRAINING_REQUEST_PATH);
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            int status = httpClient.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+            log.info("Training request GET {} answered {}, exiting", TRAINING_REQUEST_PATH, status);
+            return status;
+        } catch (IOException e) {
+            log.error("Training request GET {} failed", TRAINING_REQUEST_PATH, e);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in (employee.virtual-threads.enabled=true, or the virtual-threads profile): Tomcat runs every
+ * request, and with it the EmployeeService call and its JDBC work, on a new virtual thread instead of
+ * a pooled platform thread. Async MVC work such as the NDJSON stream uses virtual threads as well.
+ *
+ * Transactions and the persistence context stay bound to the thread handling the request, so they
+ * behave exactly as before. Database concurrency is still capped by the Hikari pool: requests beyond
+ * maximum-pool-size park cheaply in getConnection() until a connection is free or connection-timeout expires.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -1,23 +1,105 @@
 package net.javaguides.springboot.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeChanges;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.StaleVersionException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.outbox.EmployeeChangeFeed;
+import net.javaguides.springboot.search.EmployeeSearchIndex;
 import net.javaguides.springboot.service.EmployeeService;
 import org.apache.logging.log4j.message.StringFormattedMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    // RFC 8742, CBOR items back to back: the binary counterpart of NDJSON
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // rows per import transaction, each chunk costs one email lookup plus batched inserts
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    // upper bound for the IN list of a single bulk delete statement
+    private static final int MAX_DELETE_IDS = 1000;
+
+    // offset paging reads every row before the page, on each shard; deeper name searches are refused
+    private static final int MAX_SEARCH_DEPTH = 10_000;
+
+    private static final int MAX_SEARCH_HITS = 100;
+
+    private static final int MAX_DELTA_SIZE = 10_000;
+
+    private static final int MAX_CHANGES = 1000;
+
+    // stays below spring.mvc.async.request-timeout
+    private static final int MAX_CHANGES_WAIT_SECONDS = 30;
+
     private final EmployeeService employeeService;
 
-    private EmployeeController(EmployeeService employeeService) {
+    private final EmployeeSearchIndex employeeSearchIndex;
+
+    private final EmployeeChangeFeed employeeChangeFeed;
+
+    private final ObjectReader employeeReader;
+
+    private final ObjectWriter employeeWriter;
+
+    private final ObjectWriter cborEmployeeWriter;
+
+    private final CacheControl cacheControl;
+
+    private EmployeeController(EmployeeService employeeService, EmployeeSearchIndex employeeSearchIndex,
+                               EmployeeChangeFeed employeeChangeFeed, ObjectMapper objectMapper,
+                               @Value("${employee.http-cache.max-age:0s}") Duration maxAge) {
         this.employeeService = employeeService;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.employeeChangeFeed = employeeChangeFeed;
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        // the response stream stays open between rows, so Jackson must not close it after each value
+        this.employeeWriter = objectMapper.writerFor(Employee.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.cborEmployeeWriter = objectMapper.copyWith(new CBORFactory())
+                .writerFor(Employee.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // no-cache: clients may keep the body but revalidate it with If-None-Match on every use
+        this.cacheControl = maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).mustRevalidate();
     }
 
     @PostMapping
@@ -26,38 +108,279 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    // bulk import from a JSON array or NDJSON body, read incrementally and saved chunk by chunk
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResult importEmployees(InputStream body) throws IOException {
+        BulkImportResult result = BulkImportResult.empty();
+        try (MappingIterator<Employee> employees = employeeReader.readValues(body)) {
+            List<Employee> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+            while (employees.hasNextValue()) {
+                chunk.add(employees.nextValue());
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    result = result.plus(employeeService.saveEmployees(chunk));
+                    chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                result = result.plus(employeeService.saveEmployees(chunk));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed employee batch: " + e.getOriginalMessage(), e);
+        }
+        return result;
+    }
+
+    // the ETag and the body come from the same read, a 304 reads the table version only
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<EmployeeView>> getAllEmployees(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        EmployeeListing listing = employeeService.getEmployeeListing(
+                version -> ifNoneMatch != null && matchesAny(ifNoneMatch, listingETag(version)));
+        String eTag = listingETag(listing.version());
+        if (listing.employees() == null) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(listing.employees());
+    }
+
+    // ids and names only, GET /api/employees?view=summary
+    @GetMapping(params = "view=summary")
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return employeeService.getEmployeeSummaries();
+    }
+
+    // keyset pagination, e.g. GET /api/employees?size=100&cursor=<nextCursor of the previous page>
+    @GetMapping(params = "size")
+    public EmployeePage getEmployeesPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam("size") int size) {
+        long afterId;
+        try {
+            afterId = cursor == null ? 0L : EmployeePage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return employeeService.getEmployeesPage(afterId, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    // delta sync, e.g. GET /api/employees?changedSince=<nextToken of the last sync>: employees modified since the token
+    // plus the ids of deleted ones. An empty token starts from the beginning, keep calling while hasMore is true
+    @GetMapping(params = "changedSince")
+    public EmployeeDelta getEmployeesChangedSince(@RequestParam("changedSince") String token,
+                                                  @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        EmployeeDelta.Token since;
+        try {
+            since = EmployeeDelta.Token.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return employeeService.getEmployeesChangedSince(since, Math.max(1, Math.min(limit, MAX_DELTA_SIZE)));
+    }
+
+    // streams every employee as newline delimited JSON while rows are read from the database
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees() {
+        StreamingResponseBody body = outputStream -> employeeService.streamAllEmployees(employee -> {
+            try {
+                employeeWriter.writeValue(outputStream, employee);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // the same stream as a CBOR sequence, for clients sending Accept: application/cbor-seq
+    @GetMapping(produces = APPLICATION_CBOR_SEQ_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsCbor() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter rows = cborEmployeeWriter.writeValues(outputStream)) {
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        rows.write(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE))
+                .body(body);
     }
 
+    // If-None-Match is checked against the version alone, the employee is only loaded when it has changed
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            OptionalLong version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isPresent() && matchesAny(ifNoneMatch, eTag(version.getAsLong()))) {
+                return notModified(eTag(version.getAsLong()));
+            }
+        }
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok()
+                        .eTag(eTag(employee.getVersion()))
+                        .cacheControl(cacheControl)
+                        .body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // exact, case-insensitive lookup, e.g. GET /api/employees?email=ramesh@gmail.com
+    @GetMapping(params = "email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email)
+                .map(employee -> ResponseEntity.ok()
+                        .eTag(eTag(employee.getVersion()))
+                        .cacheControl(cacheControl)
+                        .body(employee))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // prefix search by name, e.g. GET /api/employees/search?lastName=Fad&firstName=Ra&page=0&size=20
+    @GetMapping("search")
+    public Slice<EmployeeView> searchEmployeesByName(@RequestParam("lastName") String lastName,
+                                                 @RequestParam(value = "firstName", required = false) String firstName,
+                                                 @RequestParam(value = "page", defaultValue = "0") int page,
+                                                 @RequestParam(value = "size", defaultValue = "20") int size) {
+        int pageNumber = Math.max(0, page);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if ((pageNumber + 1L) * pageSize > MAX_SEARCH_DEPTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search pages end at the first " + MAX_SEARCH_DEPTH + " matches, narrow the prefix");
+        }
+        return employeeService.searchEmployeesByName(lastName, firstName, pageNumber, pageSize);
+    }
+
+    // type-ahead search across names and email with prefix and typo tolerance, e.g. GET /api/employees/search?q=ram fad
+    @GetMapping(value = "search", params = "q")
+    public List<EmployeeSearchHit> searchEmployees(@RequestParam("q") String query,
+                                                   @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return employeeSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_HITS)));
+    }
+
+    // long-poll change feed instead of re-reading the whole table: answers at once when there are changes after the
+    // offset, otherwise holds the request (without a thread) until the next commit or for at most wait seconds.
+    // Start with after=0 and pass nextOffset back as after, GET /api/employees/changes?after=42&wait=30
+    @GetMapping("changes")
+    public CompletableFuture<EmployeeChanges> getChanges(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                         @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                         @RequestParam(value = "wait", defaultValue = "30") int waitSeconds) {
+        Duration wait = Duration.ofSeconds(Math.max(0, Math.min(waitSeconds, MAX_CHANGES_WAIT_SECONDS)));
+        return employeeChangeFeed.poll(after, Math.max(1, Math.min(limit, MAX_CHANGES)), wait)
+                .thenApply(changes -> EmployeeChanges.after(after, changes));
+    }
+
+    // If-Match is optional here, unlike PATCH, so existing clients keep working. When sent, it is checked like for
+    // PATCH, and an update committed between the read and the write fails with 412 either way
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee (@PathVariable("id") long employeeId, @RequestBody Employee employee)
+    public ResponseEntity<Employee> updateEmployee (@PathVariable("id") long employeeId,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestBody Employee employee)
     {
-
+        Long expectedVersion = ifMatch == null ? null : parseIfMatch(ifMatch);
         return employeeService.getEmployeeById(employeeId)
             .map(savedEmployee -> {
+                if (expectedVersion != null && savedEmployee.getVersion() != expectedVersion) {
+                    throw new StaleVersionException("Employee " + employeeId + " is no longer at version " + expectedVersion);
+                }
                 savedEmployee.setFirstName(employee.getFirstName());
                 savedEmployee.setLastName(employee.getLastName());
                 savedEmployee.setEmail(employee.getEmail());
 
                 Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+                return ResponseEntity.ok().eTag(eTag(updatedEmployee.getVersion())).body(updatedEmployee);
             })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // partial update in a single UPDATE statement, e.g. PATCH /api/employees/1 with If-Match: "3" and {"email": "..."}
+    // the If-Match header is mandatory so clients cannot overwrite changes they have not seen, "*" opts out
+    @PatchMapping(value = "{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody EmployeePatch patch) {
+        if (ifMatch == null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, "If-Match header is required");
+        }
+        if (patch.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Patch does not change any field");
+        }
+        long version = employeeService.patchEmployee(employeeId, parseIfMatch(ifMatch), patch);
+        return ResponseEntity.noContent().eTag(eTag(version)).build();
+    }
+
     @DeleteMapping("{id}")
-    public  ResponseEntity<String> deleteEmployee (@PathVariable("id") long employeeId){
-        employeeService.deleteEmployee(employeeId);
+    public ResponseEntity<Void> deleteEmployee (@PathVariable("id") long employeeId){
+        return employeeService.deleteEmployee(employeeId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // bulk delete in one statement, e.g. DELETE /api/employees?ids=1,2,3
+    @DeleteMapping(params = "ids")
+    public BulkDeleteResult deleteEmployees(@RequestParam("ids") List<Long> ids) {
+        if (ids.size() > MAX_DELETE_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_DELETE_IDS + " ids per request");
+        }
+        return employeeService.deleteEmployees(ids);
+    }
+
+    // purge by filter, e.g. DELETE /api/employees?emailDomain=example.com
+    @DeleteMapping(params = "emailDomain")
+    public BulkDeleteResult deleteEmployeesByEmailDomain(@RequestParam("emailDomain") String emailDomain) {
+        if (emailDomain.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "emailDomain must not be blank");
+        }
+        return employeeService.deleteEmployeesByEmailDomain(emailDomain);
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // weak: the listing is large enough to be gzipped and Tomcat does not compress responses with a strong ETag,
+    // which would have to change with the content coding
+    private static String listingETag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+    }
+
+    // weak comparison as If-None-Match requires, W/"3" matches "3"
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        String opaqueTag = opaqueTag(eTag);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*") || opaqueTag(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
 
-        return new ResponseEntity<String>("Employee deleted succesfully!", HttpStatus.OK);
+    // null for "*", otherwise the version of a single strong ETag. Weak or unparsable tags can never match
+    private static Long parseIfMatch(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Long.parseLong(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to 412
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match any version: " + ifMatch);
     }
 }
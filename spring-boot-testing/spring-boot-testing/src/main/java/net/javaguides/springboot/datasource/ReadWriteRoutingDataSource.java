@@ -0,0 +1,92 @@
+package net.javaguides.springboot.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions, @Transactional(readOnly = true) and the read methods of Spring Data repositories,
+ * to the replicas in turn. Read-write transactions and statements outside a transaction go to the primary, and so do
+ * the reads of a thread that has just written, see ReadYourWrites.
+ *
+ * JpaTransactionManager takes its connection when the transaction begins, before the transaction is marked
+ * read-only. The lazy proxy hands out a placeholder there and picks the actual DataSource at the first statement.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<DataSource> dataSources;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        super(new Router(primary, replicas, readYourWrites));
+        this.dataSources = new ArrayList<>();
+        this.dataSources.add(primary);
+        this.dataSources.addAll(replicas);
+    }
+
+    // closes the pools, the routing DataSource owns them
+    @Override
+    public void close() {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not close " + dataSource, e);
+                }
+            }
+        }
+    }
+
+    private static class Router extends AbstractRoutingDataSource {
+
+        private final int replicaCount;
+
+        private final ReadYourWrites readYourWrites;
+
+        private final AtomicInteger nextReplica = new AtomicInteger();
+
+        Router(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+            this.replicaCount = replicas.size();
+            this.readYourWrites = readYourWrites;
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(PRIMARY, primary);
+            for (int i = 0; i < replicas.size(); i++) {
+                targets.put(i, replicas.get(i));
+            }
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (TransactionSynchronizationManager.isActualTransactionActive()
+                        && TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            readYourWrites.writeCommitted();
+                        }
+                    });
+                }
+                return PRIMARY;
+            }
+            if (replicaCount == 0 || readYourWrites.isPinnedToPrimary()) {
+                return PRIMARY;
+            }
+            return Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+        }
+    }
+}
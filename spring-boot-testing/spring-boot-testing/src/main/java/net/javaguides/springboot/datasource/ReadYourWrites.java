@@ -0,0 +1,97 @@
+package net.javaguides.springboot.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes for ReadWriteRoutingDataSource: once a thread has committed a write, its read-only
+ * transactions go to the primary for window, the replication lag the replicas are expected to stay within.
+ *
+ * A write committed during an HTTP request also sets a cookie, ReadYourWritesFilter pins the following
+ * requests of the same client to the primary until the window has passed. Requests without it read from replicas.
+ */
+public class ReadYourWrites {
+
+    public static final String COOKIE_NAME = "employee-read-primary-until";
+
+    private static final String COOKIE_SET_ATTRIBUTE = ReadYourWrites.class.getName() + ".cookieSet";
+
+    private final Duration window;
+
+    // epoch millis until which the current thread reads from the primary
+    private final ThreadLocal<Long> primaryUntil = new ThreadLocal<>();
+
+    public ReadYourWrites(Duration window) {
+        this.window = window;
+    }
+
+    public boolean isPinnedToPrimary() {
+        Long until = primaryUntil.get();
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    // the reads of read run on the primary whatever the window, for results that outlive it such as cache loads
+    public <T> T readFromPrimary(Supplier<T> read) {
+        Long until = primaryUntil.get();
+        primaryUntil.set(Long.MAX_VALUE);
+        try {
+            return read.get();
+        } finally {
+            if (until == null) {
+                primaryUntil.remove();
+            } else {
+                primaryUntil.set(until);
+            }
+        }
+    }
+
+    // called by ReadWriteRoutingDataSource after a read-write transaction committed
+    public void writeCommitted() {
+        long until = System.currentTimeMillis() + window.toMillis();
+        primaryUntil.set(until);
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null
+                && attributes.getRequest().getAttribute(COOKIE_SET_ATTRIBUTE) == null) {
+            attributes.getRequest().setAttribute(COOKIE_SET_ATTRIBUTE, Boolean.TRUE);
+            attributes.getResponse().addCookie(cookie(until));
+        }
+    }
+
+    // a forged cookie can pin a client to the primary for at most one window
+    void restore(HttpServletRequest request) {
+        primaryUntil.remove();
+        if (request.getCookies() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    if (until > now) {
+                        primaryUntil.set(Math.min(until, now + window.toMillis()));
+                    }
+                } catch (NumberFormatException e) {
+                    // not ours, read from the replicas
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        primaryUntil.remove();
+    }
+
+    private Cookie cookie(long until) {
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+        return cookie;
+    }
+}
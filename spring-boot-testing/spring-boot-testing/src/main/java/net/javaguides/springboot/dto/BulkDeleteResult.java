@@ -0,0 +1,32 @@
+package net.javaguides.springboot.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// outcome of a bulk employee delete, ids that did not exist are simply not counted
+@Getter
+public class BulkDeleteResult {
+    private final int deleted;
+
+    // the ids behind the count, for callers reporting per id. Not part of the response
+    @JsonIgnore
+    private final List<Long> deletedIds;
+
+    public BulkDeleteResult(List<Long> deletedIds) {
+        this.deleted = deletedIds.size();
+        this.deletedIds = deletedIds;
+    }
+
+    public static BulkDeleteResult empty() {
+        return new BulkDeleteResult(List.of());
+    }
+
+    public BulkDeleteResult plus(BulkDeleteResult other) {
+        List<Long> ids = new ArrayList<>(deletedIds);
+        ids.addAll(other.deletedIds);
+        return new BulkDeleteResult(ids);
+    }
+}
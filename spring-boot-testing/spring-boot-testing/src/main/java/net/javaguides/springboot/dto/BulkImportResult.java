@@ -0,0 +1,26 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// outcome of a bulk employee import, rows whose email is already taken are skipped
+@Getter
+@AllArgsConstructor
+public class BulkImportResult {
+    private int created;
+
+    private List<String> skippedEmails;
+
+    public static BulkImportResult empty() {
+        return new BulkImportResult(0, List.of());
+    }
+
+    public BulkImportResult plus(BulkImportResult other) {
+        List<String> skipped = new ArrayList<>(skippedEmails);
+        skipped.addAll(other.skippedEmails);
+        return new BulkImportResult(created + other.created, skipped);
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.dto;
+
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.List;
+
+// one response of the change feed, pass nextOffset back as after to continue where this batch ended
+public record EmployeeChanges(List<EmployeeChange> changes, long nextOffset) {
+
+    public static EmployeeChanges after(long offset, List<EmployeeChange> changes) {
+        return new EmployeeChanges(changes, changes.isEmpty() ? offset : changes.get(changes.size() - 1).getId());
+    }
+}
@@ -0,0 +1,52 @@
+package net.javaguides.springboot.dto;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+// employees modified and ids of employees deleted since a sync token. Call again with nextToken while hasMore is
+// true, the last nextToken is where the next sync starts
+public record EmployeeDelta(List<EmployeeView> changed, List<Long> deleted, String nextToken, boolean hasMore) {
+
+    // (updatedAt, id) position of the last row a client has seen, encoded as an opaque token
+    public record Token(Instant updatedAt, long id) {
+
+        // before every change, the empty token starts a full sync
+        public static final Token START = new Token(Instant.EPOCH, 0L);
+
+        // the order a delta sync returns changed rows and tombstones in
+        public static final Comparator<Token> ORDER = Comparator.comparing(Token::updatedAt).thenComparingLong(Token::id);
+
+        public String encode() {
+            byte[] bytes = ByteBuffer.allocate(2 * Long.BYTES + Integer.BYTES)
+                    .putLong(updatedAt.getEpochSecond())
+                    .putInt(updatedAt.getNano())
+                    .putLong(id)
+                    .array();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+
+        public static Token decode(String token) {
+            if (token == null || token.isEmpty()) {
+                return START;
+            }
+            byte[] bytes;
+            try {
+                bytes = Base64.getUrlDecoder().decode(token);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sync token: " + token, e);
+            }
+            if (bytes.length != 2 * Long.BYTES + Integer.BYTES) {
+                throw new IllegalArgumentException("Invalid sync token: " + token);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                return new Token(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()), buffer.getLong());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid sync token: " + token, e);
+            }
+        }
+    }
+}
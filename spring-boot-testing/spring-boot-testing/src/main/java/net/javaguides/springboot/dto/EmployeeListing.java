@@ -0,0 +1,8 @@
+package net.javaguides.springboot.dto;
+
+import java.util.List;
+
+// all employees with the version of the employees table they were read at, see TableVersion.
+// employees is null when the caller already knew the version and the listing was not read
+public record EmployeeListing(long version, List<EmployeeView> employees) {
+}
@@ -0,0 +1,37 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.model.Employee;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+// one page of a keyset (seek) paginated employee listing
+@Getter
+@AllArgsConstructor
+public class EmployeePage {
+    private List<Employee> content;
+
+    // opaque cursor to pass back for the next page, null when there are no more rows
+    private String nextCursor;
+
+    public static String encodeCursor(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static long decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
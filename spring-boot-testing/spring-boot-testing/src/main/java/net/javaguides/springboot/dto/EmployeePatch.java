@@ -0,0 +1,21 @@
+package net.javaguides.springboot.dto;
+
+import lombok.*;
+
+// partial update of an employee, null fields are left unchanged
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePatch {
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && email == null;
+    }
+}
@@ -0,0 +1,5 @@
+package net.javaguides.springboot.dto;
+
+// one ranked result of the full-text employee search, best matches have the highest score
+public record EmployeeSearchHit(long id, String firstName, String lastName, String email, float score) {
+}
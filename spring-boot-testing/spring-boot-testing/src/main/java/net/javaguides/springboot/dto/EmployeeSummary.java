@@ -0,0 +1,5 @@
+package net.javaguides.springboot.dto;
+
+// id and name only, for pickers and other listings that do not need the email
+public record EmployeeSummary(long id, String firstName, String lastName) {
+}
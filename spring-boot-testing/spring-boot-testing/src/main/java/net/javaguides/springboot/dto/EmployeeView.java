@@ -0,0 +1,8 @@
+package net.javaguides.springboot.dto;
+
+import java.time.Instant;
+
+// read model of an employee for list and search responses, selected by a constructor projection so
+// no managed entity (and no dirty-checking snapshot) is created. Serializes like Employee minus createdAt
+public record EmployeeView(long id, String firstName, String lastName, String email, long version, Instant updatedAt) {
+}
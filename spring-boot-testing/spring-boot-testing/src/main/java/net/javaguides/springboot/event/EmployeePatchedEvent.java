@@ -0,0 +1,7 @@
+package net.javaguides.springboot.event;
+
+import net.javaguides.springboot.dto.EmployeePatch;
+
+// the non-null fields of patch were written to the employee, version is the new version
+public record EmployeePatchedEvent(long id, long version, EmployeePatch patch) {
+}
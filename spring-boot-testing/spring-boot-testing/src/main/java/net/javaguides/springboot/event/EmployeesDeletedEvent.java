@@ -0,0 +1,7 @@
+package net.javaguides.springboot.event;
+
+import java.util.Collection;
+
+// employees removed by id, ids that did not exist may be included
+public record EmployeesDeletedEvent(Collection<Long> ids) {
+}
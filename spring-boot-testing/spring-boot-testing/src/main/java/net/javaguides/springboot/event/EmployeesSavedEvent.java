@@ -0,0 +1,9 @@
+package net.javaguides.springboot.event;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+// employees created or fully replaced, carries detached copies of their committed state
+public record EmployeesSavedEvent(List<Employee> employees) {
+}
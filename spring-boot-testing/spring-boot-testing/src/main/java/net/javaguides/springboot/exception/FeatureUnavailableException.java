@@ -0,0 +1,12 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// an endpoint the current configuration cannot serve, e.g. the outbox change feed of sharded employees
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class FeatureUnavailableException extends RuntimeException {
+    public FeatureUnavailableException(String message) {
+        super(message);
+    }
+}
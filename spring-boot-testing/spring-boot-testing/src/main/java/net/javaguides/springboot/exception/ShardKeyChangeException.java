@@ -0,0 +1,12 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// with sharding an employee's email decides its shard, it can only change to an email of the same shard bucket
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ShardKeyChangeException extends RuntimeException {
+    public ShardKeyChangeException(String message) {
+        super(message);
+    }
+}
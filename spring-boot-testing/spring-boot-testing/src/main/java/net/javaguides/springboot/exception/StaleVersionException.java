@@ -0,0 +1,16 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// the client's If-Match version no longer matches the stored row
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class StaleVersionException extends RuntimeException {
+    public StaleVersionException(String message) {
+        super(message);
+    }
+
+    public StaleVersionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
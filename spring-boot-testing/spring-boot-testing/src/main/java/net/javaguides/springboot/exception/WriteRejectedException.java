@@ -0,0 +1,12 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// a write could not be accepted right now, e.g. the write-behind queue stayed full, clients should retry later
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteRejectedException extends RuntimeException {
+    public WriteRejectedException(String message) {
+        super(message);
+    }
+}
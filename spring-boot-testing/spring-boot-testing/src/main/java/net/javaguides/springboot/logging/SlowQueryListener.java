@@ -0,0 +1,100 @@
+package net.javaguides.springboot.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Logs statements slower than a threshold to the SLOW_QUERY logger, together with their bind parameters
+ * and the application method that issued them.
+ *
+ * A statement under the threshold only costs the elapsed time comparison; the message, the parameters
+ * and the stack walk for the call site are built for the sampled slow statements alone.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger("net.javaguides.springboot.SLOW_QUERY");
+
+    // a batched insert can carry hundreds of parameter sets, only the first ones are worth a log line
+    private static final int MAX_LOGGED_PARAMETER_SETS = 10;
+
+    private static final String APPLICATION_PACKAGE = "net.javaguides.springboot.";
+
+    private static final String SERVICE_PACKAGE = APPLICATION_PACKAGE + "service.";
+
+    private final long thresholdMillis;
+
+    private final double sampleRate;
+
+    private final boolean logParameters;
+
+    public SlowQueryListener(Duration threshold, double sampleRate, boolean logParameters) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || !log.isWarnEnabled()) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        log.warn("Slow query took {} ms at {}{}: {}{}",
+                execInfo.getElapsedTime(),
+                callSite(),
+                execInfo.isBatch() ? " (batch of " + execInfo.getBatchSize() + ")" : "",
+                queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")),
+                logParameters ? " params=" + parameters(queryInfoList) : "");
+    }
+
+    // the service method behind the statement, or the nearest application frame when it did not come from a service
+    static String callSite() {
+        return StackWalker.getInstance().walk(frames -> {
+            List<StackWalker.StackFrame> applicationFrames = frames
+                    .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                    .filter(frame -> !frame.getClassName().startsWith(SlowQueryListener.class.getPackageName()))
+                    .filter(frame -> !frame.getClassName().contains("$$"))
+                    .toList();
+            Optional<StackWalker.StackFrame> serviceFrame = applicationFrames.stream()
+                    .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE))
+                    .findFirst();
+            return serviceFrame.or(() -> applicationFrames.stream().findFirst())
+                    .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                            + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                    .orElse("unknown");
+        });
+    }
+
+    private static String parameters(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .flatMap(queryInfo -> queryInfo.getParametersList().stream())
+                .limit(MAX_LOGGED_PARAMETER_SETS)
+                .map(SlowQueryListener::parameterSet)
+                .collect(Collectors.joining(", "));
+    }
+
+    // setXxx(index, value) calls recorded by the proxy, rendered in index order
+    private static String parameterSet(List<ParameterSetOperation> operations) {
+        return operations.stream()
+                .map(ParameterSetOperation::getArgs)
+                .sorted((left, right) -> Integer.compare((Integer) left[0], (Integer) right[0]))
+                .map(args -> args.length > 1 ? String.valueOf(args[1]) : "null")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+}
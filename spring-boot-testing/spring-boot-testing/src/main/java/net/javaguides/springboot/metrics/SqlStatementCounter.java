@@ -0,0 +1,34 @@
+package net.javaguides.springboot.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate hook that counts the SQL statements prepared on the current thread while a count is open,
+// statements issued outside of start()/stop() (startup, background jobs) are not counted
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<Count> current = new ThreadLocal<>();
+
+    public void start() {
+        current.set(new Count());
+    }
+
+    // returns the statements prepared since start() and closes the count
+    public int stop() {
+        Count count = current.get();
+        current.remove();
+        return count == null ? 0 : count.value;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Count count = current.get();
+        if (count != null) {
+            count.value++;
+        }
+        return sql;
+    }
+
+    private static final class Count {
+        private int value;
+    }
+}
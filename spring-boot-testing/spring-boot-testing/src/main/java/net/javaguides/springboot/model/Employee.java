@@ -3,18 +3,48 @@ package net.javaguides.springboot.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import net.javaguides.springboot.sharding.EmployeeIdGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.Locale;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name = "employees")
-
+// the unique constraint is backed by an index, so email lookups and the duplicate check are index seeks,
+// name searches filter and sort on the leading columns of the (last_name, first_name) index,
+// delta syncs seek on (updated_at, id)
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = {@Index(name = "idx_employees_last_first_name", columnList = "last_name, first_name"),
+                @Index(name = "idx_employees_updated_at_id", columnList = "updated_at, id")})
+// second-level cache region, sized in SecondLevelCacheConfig. READ_WRITE keeps it consistent with our own writes
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
+    public static final String CACHE_REGION = "employee";
+
+    // query cache region for the email and name lookups of EmployeeRepository
+    public static final String QUERY_CACHE_REGION = "employee-queries";
+
+    // pooled sequence ids let Hibernate batch inserts, IDENTITY forces one round trip per row.
+    // With sharding EmployeeIdGenerator also puts the shard bucket into the id
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "employees_seq")
+    @GenericGenerator(name = "employees_seq", type = EmployeeIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "employees_seq"),
+            @Parameter(name = "increment_size", value = "50")})
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -23,4 +53,29 @@ public class Employee {
     private String lastName;
     @Column(nullable = false)
     private String email;
+
+    // optimistic locking: bumped on every update, exposed to clients as the ETag
+    @Version
+    private long version;
+
+    // set by Hibernate on insert and on every entity update, bulk updates such as patchEmployee set updatedAt themselves
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // emails are stored lower-cased so the unique index also makes them case-insensitive
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        email = normalizeEmail(email);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
+
@@ -0,0 +1,53 @@
+package net.javaguides.springboot.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// one row of the transactional outbox, written in the same transaction as the employee change it describes.
+// The id is the offset consumers of the change feed resume from
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+// tombstones for delta syncs are paged by (type, occurred_at, employee_id)
+@Table(name = "employee_changes",
+        indexes = @Index(name = "idx_employee_changes_type_occurred_at", columnList = "type, occurred_at, employee_id"))
+public class EmployeeChange {
+
+    public enum Type {
+        // the employee was created or fully replaced, all fields are set
+        SAVED,
+        // only the fields that were patched are set
+        PATCHED,
+        // tombstone, only employeeId is set
+        DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_changes_seq")
+    @SequenceGenerator(name = "employee_changes_seq", sequenceName = "employee_changes_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    // the employee version after the change, null for tombstones
+    private Long version;
+
+    @Column(name = "first_name")
+    private String firstName;
+    @Column(name = "last_name")
+    private String lastName;
+    private String email;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
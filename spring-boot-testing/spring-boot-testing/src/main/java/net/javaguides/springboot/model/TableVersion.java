@@ -0,0 +1,25 @@
+package net.javaguides.springboot.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// a counter per table that every write transaction on it increments before commit, the version of listings of the
+// whole table without aggregating it. The rows are created with the schema by import.sql, databases whose schema is
+// managed outside Hibernate need them as well
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "table_versions")
+public class TableVersion {
+
+    public static final String EMPLOYEES = "employees";
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+}
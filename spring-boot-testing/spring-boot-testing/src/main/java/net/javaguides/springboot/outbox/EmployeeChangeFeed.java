@@ -0,0 +1,141 @@
+package net.javaguides.springboot.outbox;
+
+import jakarta.annotation.PreDestroy;
+import net.javaguides.springboot.exception.FeatureUnavailableException;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the employee outbox in offset order and lets consumers long-poll for changes after an offset.
+ *
+ * Offsets are handed out when a row is persisted but become visible in commit order, so a reader could see
+ * offset 11 before a slower transaction commits offset 10 and then resume past it. Offsets of transactions
+ * that are still running are therefore tracked here and reads stop just before the oldest of them.
+ * This holds for writes made through this instance, the only writer of the outbox.
+ *
+ * Waiting consumers are woken up from a single notifier thread after each commit, never on the writer's thread.
+ * With sharded employees every shard has an outbox of its own whose offsets say nothing about the order across
+ * shards, the feed is not available then.
+ */
+@Component
+public class EmployeeChangeFeed {
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final boolean sharded;
+
+    private final NavigableSet<Long> inFlightOffsets = new ConcurrentSkipListSet<>();
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-change-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmployeeChangeFeed(EmployeeChangeRepository employeeChangeRepository,
+                              @Value("${employee.sharding.enabled:false}") boolean sharded) {
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.sharded = sharded;
+    }
+
+    // persists the changes in the current transaction, allocating offsets and registering them as in flight is
+    // atomic with respect to reads, otherwise a read could miss an offset that was allocated but not yet tracked
+    void record(List<EmployeeChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Long> offsets;
+        synchronized (inFlightOffsets) {
+            offsets = employeeChangeRepository.saveAll(changes).stream().map(EmployeeChange::getId).toList();
+            inFlightOffsets.addAll(offsets);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                inFlightOffsets.removeAll(offsets);
+                // a rollback can also release committed offsets that were held back behind it
+                wakeUp();
+            }
+        });
+    }
+
+    public List<EmployeeChange> read(long after, int limit) {
+        checkAvailable();
+        long before;
+        synchronized (inFlightOffsets) {
+            before = inFlightOffsets.isEmpty() ? Long.MAX_VALUE : inFlightOffsets.first();
+        }
+        return employeeChangeRepository.findChanges(after, before, PageRequest.ofSize(limit));
+    }
+
+    // completes as soon as changes after the offset are readable, or with an empty list once timeout has passed
+    public CompletableFuture<List<EmployeeChange>> poll(long after, int limit, Duration timeout) {
+        checkAvailable();
+        Waiter waiter = new Waiter(after, limit, new CompletableFuture<>());
+        // registered before the first read, so a commit in between still wakes it up
+        waiters.add(waiter);
+        waiter.changes().whenComplete((changes, failure) -> waiters.remove(waiter));
+        deliver(waiter);
+        return waiter.changes().completeOnTimeout(List.of(), timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        notifier.shutdownNow();
+        waiters.forEach(waiter -> waiter.changes().complete(List.of()));
+    }
+
+    private void checkAvailable() {
+        if (sharded) {
+            throw new FeatureUnavailableException("The change feed is not available for sharded employees, "
+                    + "sync with changedSince instead");
+        }
+    }
+
+    // commits that arrive while the waiters are being served schedule one more round, never more
+    private void wakeUp() {
+        if (!waiters.isEmpty() && wakeUpPending.compareAndSet(false, true)) {
+            try {
+                notifier.execute(() -> {
+                    wakeUpPending.set(false);
+                    waiters.forEach(this::deliver);
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down, close() completes the waiters
+            }
+        }
+    }
+
+    private void deliver(Waiter waiter) {
+        if (waiter.changes().isDone()) {
+            return;
+        }
+        try {
+            List<EmployeeChange> changes = read(waiter.after(), waiter.limit());
+            if (!changes.isEmpty()) {
+                waiter.changes().complete(changes);
+            }
+        } catch (RuntimeException e) {
+            waiter.changes().completeExceptionally(e);
+        }
+    }
+
+    private record Waiter(long after, int limit, CompletableFuture<List<EmployeeChange>> changes) {
+    }
+}
@@ -0,0 +1,71 @@
+package net.javaguides.springboot.outbox;
+
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.event.EmployeePatchedEvent;
+import net.javaguides.springboot.event.EmployeesDeletedEvent;
+import net.javaguides.springboot.event.EmployeesSavedEvent;
+import net.javaguides.springboot.model.EmployeeChange;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// writes the outbox rows for EmployeeService writes. The listeners run synchronously inside the publishing
+// transaction (MANDATORY), so an employee change and its outbox row are committed or rolled back together
+@Component
+public class EmployeeChangeRecorder {
+
+    private final EmployeeChangeFeed employeeChangeFeed;
+
+    public EmployeeChangeRecorder(EmployeeChangeFeed employeeChangeFeed) {
+        this.employeeChangeFeed = employeeChangeFeed;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onSaved(EmployeesSavedEvent event) {
+        Instant now = Instant.now();
+        employeeChangeFeed.record(event.employees().stream()
+                .map(employee -> EmployeeChange.builder()
+                        .employeeId(employee.getId())
+                        .type(EmployeeChange.Type.SAVED)
+                        .version(employee.getVersion())
+                        .firstName(employee.getFirstName())
+                        .lastName(employee.getLastName())
+                        .email(employee.getEmail())
+                        .occurredAt(now)
+                        .build())
+                .toList());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPatched(EmployeePatchedEvent event) {
+        EmployeePatch patch = event.patch();
+        employeeChangeFeed.record(List.of(EmployeeChange.builder()
+                .employeeId(event.id())
+                .type(EmployeeChange.Type.PATCHED)
+                .version(event.version())
+                .firstName(patch.getFirstName())
+                .lastName(patch.getLastName())
+                .email(patch.getEmail())
+                .occurredAt(Instant.now())
+                .build()));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDeleted(EmployeesDeletedEvent event) {
+        Instant now = Instant.now();
+        employeeChangeFeed.record(event.ids().stream()
+                .map(id -> EmployeeChange.builder()
+                        .employeeId(id)
+                        .type(EmployeeChange.Type.DELETED)
+                        .occurredAt(now)
+                        .build())
+                .toList());
+    }
+}
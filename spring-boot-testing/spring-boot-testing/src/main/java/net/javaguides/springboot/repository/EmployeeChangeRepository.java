@@ -0,0 +1,26 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+    // keyset read of the outbox, before excludes offsets whose transactions may still commit
+    @Query("select c from EmployeeChange c where c.id > :after and c.id < :before order by c.id")
+    List<EmployeeChange> findChanges(@Param("after") long after, @Param("before") long before, Pageable pageable);
+
+    // delta sync: changes of the given type after the (occurredAt, employeeId) position up to until, the same keyset
+    // as EmployeeRepository.findChangedSince, seeks on idx_employee_changes_type_occurred_at
+    @Query("select c from EmployeeChange c where c.type = :type and c.occurredAt <= :until "
+            + "and (c.occurredAt > :since or (c.occurredAt = :since and c.employeeId > :afterId)) "
+            + "order by c.occurredAt, c.employeeId")
+    List<EmployeeChange> findChangedSince(@Param("type") EmployeeChange.Type type, @Param("since") Instant since,
+                                          @Param("afterId") long afterId, @Param("until") Instant until,
+                                          Pageable pageable);
+}
@@ -1,34 +1,143 @@
 package net.javaguides.springboot.repository;
 
+import jakarta.persistence.QueryHint;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
 import net.javaguides.springboot.model.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 //@Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-    Optional<Employee> findByEmail(String email);
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
+    // emails are stored normalized, see Employee#normalizeEmail
+    default Optional<Employee> findByEmail(String email) {
+        return findByNormalizedEmail(Employee.normalizeEmail(email));
+    }
+
+    // cacheable lookups keep their results in the query cache, any write to the employees table invalidates them
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)})
+    @Query("select e from Employee e where e.email = :email")
+    Optional<Employee> findByNormalizedEmail(@Param("email") String email);
+
+    // deleteById loads the entity first, these run a single DELETE and report how many rows it removed
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+    // the given ids that exist, their rows locked until commit: a bulk delete removes and reports exactly these
+    @Query(value = "select id from employees where id in :ids for update", nativeQuery = true)
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    // pattern is a LIKE suffix such as '%@example.com' with wildcards already escaped by the caller.
+    // The matching rows are locked until commit, like lockExistingIds
+    @Query(value = "select id from employees where email like :pattern escape '\\' for update", nativeQuery = true)
+    List<Long> lockIdsByEmailLike(@Param("pattern") String pattern);
+
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    // checks a whole import chunk for already registered emails with a single IN query
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // name search: prefix match on last name and (optionally empty) first name prefix, the pageable should sort by
+    // lastName, firstName so the composite index serves both filter and order. Wildcards in the input are escaped
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)})
+    Slice<Employee> findByLastNameStartingWithAndFirstNameStartingWith(String lastNamePrefix, String firstNamePrefix,
+                                                                      Pageable pageable);
+
+    // same search into a projection type such as EmployeeView, a record selects only its constructor's columns
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)})
+    <T> Slice<T> findByLastNameStartingWithAndFirstNameStartingWith(String lastNamePrefix, String firstNamePrefix,
+                                                                   Pageable pageable, Class<T> type);
+
+    // constructor projections for listings: plain records, nothing enters the persistence context
+    @Query("select new net.javaguides.springboot.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version, e.updatedAt) "
+            + "from Employee e order by e.id")
+    List<EmployeeView> findAllViews();
+
+    @Query("select new net.javaguides.springboot.dto.EmployeeSummary(e.id, e.firstName, e.lastName) "
+            + "from Employee e order by e.id")
+    List<EmployeeSummary> findAllSummaries();
+
+    // delta sync: rows modified after the (updatedAt, id) position up to until, seeks on idx_employees_updated_at_id
+    @Query("select new net.javaguides.springboot.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version, e.updatedAt) "
+            + "from Employee e where e.updatedAt <= :until "
+            + "and (e.updatedAt > :since or (e.updatedAt = :since and e.id > :afterId)) order by e.updatedAt, e.id")
+    List<EmployeeView> findChangedSince(@Param("since") Instant since, @Param("afterId") long afterId,
+                                        @Param("until") Instant until, Pageable pageable);
+
+    // the four exact-match lookups below are superseded by findByLastNameStartingWithAndFirstNameStartingWith,
+    // they fail once two employees share a name and are only kept until EmployeeRepositoryBenchmark has picked the winner
 
     // define custom query using JPQL with index params
+    @Deprecated
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)})
     @Query("select e from Employee e where e.firstName =?1 and e.lastName =?2")
     Employee findByJPQL(String firstName, String lastName);
 
 
     // define custom query using JPQL with named params
+    @Deprecated
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)})
     @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
     Employee findByJPQLNamedParams(
             @Param ("firstName") String firstName,
             @Param ("lastName") String lastName);
 
     // define custom query using native SQL with index params
+    @Deprecated
+    // native results are cached against the employees table, so writes to it invalidate them
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")})
     @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2" , nativeQuery = true)
     Employee findByNativeSQL (String firstName, String lastName);
 
 
     // define custom query using native SQL with named params
+    @Deprecated
+    // native results are cached against the employees table, so writes to it invalidate them
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")})
     @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name = :lastName" , nativeQuery = true)
     Employee findByNativeSQLNamedParams (@Param ("firstName") String firstName, @Param("lastName")String lastName);
 
+    // keyset (seek) pagination: seeks on the primary key instead of counting an OFFSET,
+    // so every page costs the same no matter how deep the client has scrolled
+    @Query("select e from Employee e where e.id > :afterId order by e.id")
+    List<Employee> findNextPage(@Param("afterId") long afterId, Pageable pageable);
+
+    // streams the whole table with a JDBC fetch size instead of materializing a List,
+    // must be consumed inside a transaction and closed afterwards
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
 
 }
@@ -0,0 +1,8 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.dto.EmployeePatch;
+
+public interface EmployeeRepositoryCustom {
+    // one UPDATE ... WHERE id = ? [AND version = ?] touching only the patched columns, returns the updated row count
+    int patchEmployee(long id, Long expectedVersion, EmployeePatch patch);
+}
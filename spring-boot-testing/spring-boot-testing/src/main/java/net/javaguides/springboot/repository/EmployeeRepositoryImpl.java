@@ -0,0 +1,53 @@
+package net.javaguides.springboot.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// custom fragment of EmployeeRepository, picked up by the Impl suffix
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public EmployeeRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = criteriaBuilder.createCriteriaUpdate(Employee.class);
+        Root<Employee> employee = update.from(Employee.class);
+
+        if (patch.getFirstName() != null) {
+            update.set(employee.<String>get("firstName"), patch.getFirstName());
+        }
+        if (patch.getLastName() != null) {
+            update.set(employee.<String>get("lastName"), patch.getLastName());
+        }
+        if (patch.getEmail() != null) {
+            update.set(employee.<String>get("email"), patch.getEmail());
+        }
+        update.set(employee.<Long>get("version"), criteriaBuilder.sum(employee.<Long>get("version"), 1L));
+        update.set(employee.<Instant>get("updatedAt"), Instant.now());
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(criteriaBuilder.equal(employee.get("id"), id));
+        if (expectedVersion != null) {
+            where.add(criteriaBuilder.equal(employee.get("version"), expectedVersion));
+        }
+        update.where(where.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
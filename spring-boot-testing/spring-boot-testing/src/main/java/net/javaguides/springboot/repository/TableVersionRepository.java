@@ -0,0 +1,20 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.TableVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface TableVersionRepository extends JpaRepository<TableVersion, String> {
+
+    // locks the row until commit, 0 when the table has no row
+    @Modifying
+    @Query("update TableVersion v set v.version = v.version + 1 where v.name = :name")
+    int incrementVersion(@Param("name") String name);
+
+    @Query("select v.version from TableVersion v where v.name = :name")
+    Optional<Long> findVersion(@Param("name") String name);
+}
@@ -0,0 +1,323 @@
+package net.javaguides.springboot.search;
+
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.model.Employee;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-memory Lucene index over employee names and emails for type-ahead search.
+ *
+ * Every query term has to match one of the fields, exactly, as a prefix of a word or within a small edit distance.
+ * Exact matches rank above prefix matches, which rank above fuzzy ones. Fuzzy matching costs far more than the
+ * other two, so it only runs when nothing matched exactly or as a prefix.
+ * The stored fields are enough to render a hit, so searching never touches the database.
+ *
+ * Writes are serialized and made visible to searchers before they return, searches run concurrently.
+ * They may arrive out of commit order, so every field keeps the employee version it was written at and only a
+ * newer version replaces it. A deleted employee leaves a tombstone that no search matches and no later write
+ * brings back, ids are never reused; tombstones are dropped by the next rebuild.
+ */
+public class EmployeeSearchIndex implements Closeable {
+
+    private static final String ID = "id";
+
+    private static final List<String> SEARCH_FIELDS = List.of("firstName", "lastName", "email");
+
+    private static final String VERSION_SUFFIX = ".version";
+
+    private static final Term TOMBSTONE = new Term("deleted", "true");
+
+    private static final float EXACT_BOOST = 4f;
+
+    private static final float PREFIX_BOOST = 2f;
+
+    // edits only from the second character on, which keeps fuzzy term expansion cheap on large indexes
+    private static final int FUZZY_PREFIX_LENGTH = 1;
+
+    // scoring every term within the edit distance is what makes fuzzy queries slow, only the closest ones are kept
+    private static final int FUZZY_MAX_EXPANSIONS = 10;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    public EmployeeSearchIndex() {
+        try {
+            writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // replaces the whole index with the employees the source hands to its consumer
+    public synchronized void rebuild(Consumer<Consumer<Employee>> source) {
+        try {
+            writer.deleteAll();
+            source.accept(employee -> {
+                try {
+                    writer.addDocument(document(employee.getId(), fieldsOf(employee)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // each employee's fields replace the stored ones written at an older version
+    public synchronized void index(Collection<Employee> employees) {
+        try {
+            Map<Long, Document> stored = storedDocuments(employees.stream().map(Employee::getId).toList());
+            boolean changed = false;
+            for (Employee employee : employees) {
+                Document merged = merge(employee.getId(), stored.get(employee.getId()), fieldsOf(employee));
+                if (merged != null) {
+                    writer.updateDocument(idTerm(employee.getId()), merged);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                refresh();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // applies the non-null fields of the patch, written at version, to the stored document. Unknown ids are ignored
+    public synchronized void patch(long id, long version, EmployeePatch patch) {
+        try {
+            Document stored = storedDocuments(List.of(id)).get(id);
+            if (stored == null) {
+                return;
+            }
+            Map<String, Versioned> fields = new HashMap<>();
+            putIfSet(fields, "firstName", patch.getFirstName(), version);
+            putIfSet(fields, "lastName", patch.getLastName(), version);
+            putIfSet(fields, "email", patch.getEmail(), version);
+            Document merged = merge(id, stored, fields);
+            if (merged != null) {
+                writer.updateDocument(idTerm(id), merged);
+                refresh();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void delete(Collection<Long> ids) {
+        try {
+            for (long id : ids) {
+                writer.updateDocument(idTerm(id), tombstone(id));
+            }
+            refresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<EmployeeSearchHit> search(String text, int limit) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<EmployeeSearchHit> hits = search(query(terms, false), limit);
+            return hits.isEmpty() ? search(query(terms, true), limit) : hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // indexed employees, tombstones not counted
+    public int size() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs() - searcher.count(new TermQuery(TOMBSTONE));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private List<EmployeeSearchHit> search(Query query, int limit) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, limit);
+            StoredFields storedFields = searcher.storedFields();
+            List<EmployeeSearchHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                Document document = storedFields.document(scoreDoc.doc);
+                hits.add(new EmployeeSearchHit(Long.parseLong(document.get(ID)), document.get("firstName"),
+                        document.get("lastName"), document.get("email"), scoreDoc.score));
+            }
+            return hits;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private static Query query(List<String> terms, boolean fuzzy) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(termQuery(term, fuzzy), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private static Query termQuery(String term, boolean fuzzy) {
+        // up to two edits for long words, one for short ones, none for one or two letters
+        int maxEdits = !fuzzy ? 0 : term.length() >= 6 ? 2 : term.length() >= 3 ? 1 : 0;
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String field : SEARCH_FIELDS) {
+            Term fieldTerm = new Term(field, term);
+            query.add(new BoostQuery(new TermQuery(fieldTerm), EXACT_BOOST), BooleanClause.Occur.SHOULD);
+            query.add(new BoostQuery(new PrefixQuery(fieldTerm), PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+            if (maxEdits > 0) {
+                query.add(new FuzzyQuery(fieldTerm, maxEdits, FUZZY_PREFIX_LENGTH, FUZZY_MAX_EXPANSIONS, true),
+                        BooleanClause.Occur.SHOULD);
+            }
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream("firstName", text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    // the documents of the ids found, tombstones included, read from one searcher that sees every write so far
+    private Map<Long, Document> storedDocuments(Collection<Long> ids) throws IOException {
+        searcherManager.maybeRefreshBlocking();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Map<Long, Document> documents = new HashMap<>();
+            for (long id : ids) {
+                TopDocs topDocs = searcher.search(new TermQuery(idTerm(id)), 1);
+                if (topDocs.scoreDocs.length > 0) {
+                    documents.put(id, searcher.storedFields().document(topDocs.scoreDocs[0].doc));
+                }
+            }
+            return documents;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    // the stored document with the given fields written over older ones, null when nothing is newer or the
+    // employee was deleted. Without a stored document every field has to be given
+    private static Document merge(long id, Document stored, Map<String, Versioned> fields) {
+        if (stored != null && stored.get(TOMBSTONE.field()) != null) {
+            return null;
+        }
+        Map<String, Versioned> merged = new LinkedHashMap<>();
+        boolean newer = false;
+        for (String field : SEARCH_FIELDS) {
+            Versioned written = fields.get(field);
+            Versioned current = stored == null ? null : new Versioned(stored.get(field),
+                    stored.getField(field + VERSION_SUFFIX).numericValue().longValue());
+            if (written != null && (current == null || written.version() > current.version())) {
+                merged.put(field, written);
+                newer = true;
+            } else if (current != null) {
+                merged.put(field, current);
+            } else {
+                return null;
+            }
+        }
+        return newer ? document(id, merged) : null;
+    }
+
+    private static Map<String, Versioned> fieldsOf(Employee employee) {
+        Map<String, Versioned> fields = new HashMap<>();
+        fields.put("firstName", new Versioned(employee.getFirstName(), employee.getVersion()));
+        fields.put("lastName", new Versioned(employee.getLastName(), employee.getVersion()));
+        fields.put("email", new Versioned(employee.getEmail(), employee.getVersion()));
+        return fields;
+    }
+
+    private static void putIfSet(Map<String, Versioned> fields, String field, String value, long version) {
+        if (value != null) {
+            fields.put(field, new Versioned(value, version));
+        }
+    }
+
+    private static Document document(long id, Map<String, Versioned> fields) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+        for (String field : SEARCH_FIELDS) {
+            Versioned value = fields.get(field);
+            document.add(new TextField(field, value.value(), Field.Store.YES));
+            document.add(new StoredField(field + VERSION_SUFFIX, value.version()));
+        }
+        return document;
+    }
+
+    private static Document tombstone(long id) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+        document.add(new StringField(TOMBSTONE.field(), TOMBSTONE.text(), Field.Store.YES));
+        return document;
+    }
+
+    private static Term idTerm(long id) {
+        return new Term(ID, String.valueOf(id));
+    }
+
+    private void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    private record Versioned(String value, long version) {
+    }
+}
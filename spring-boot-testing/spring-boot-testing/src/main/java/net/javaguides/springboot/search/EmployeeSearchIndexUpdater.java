@@ -0,0 +1,60 @@
+package net.javaguides.springboot.search;
+
+import net.javaguides.springboot.event.EmployeePatchedEvent;
+import net.javaguides.springboot.event.EmployeesDeletedEvent;
+import net.javaguides.springboot.event.EmployeesSavedEvent;
+import net.javaguides.springboot.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// keeps EmployeeSearchIndex in sync with EmployeeService writes. Events are applied after commit, so a rolled back
+// write never shows up in search; writes outside of a transaction (fallbackExecution) are applied right away.
+// Listeners of concurrent commits can run in either order, the index keeps whichever version is newer
+@Component
+public class EmployeeSearchIndexUpdater implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchIndexUpdater.class);
+
+    private final EmployeeSearchIndex employeeSearchIndex;
+
+    private final EmployeeService employeeService;
+
+    private final boolean rebuildOnStartup;
+
+    public EmployeeSearchIndexUpdater(EmployeeSearchIndex employeeSearchIndex, EmployeeService employeeService,
+                                      @Value("${employee.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.employeeService = employeeService;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // runs before the web server accepts requests, so the first search already sees every employee
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rebuildOnStartup) {
+            long started = System.nanoTime();
+            employeeSearchIndex.rebuild(employeeService::streamAllEmployees);
+            log.info("Indexed {} employees for search in {} ms", employeeSearchIndex.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(EmployeesSavedEvent event) {
+        employeeSearchIndex.index(event.employees());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatched(EmployeePatchedEvent event) {
+        employeeSearchIndex.patch(event.id(), event.version(), event.patch());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(EmployeesDeletedEvent event) {
+        employeeSearchIndex.delete(event.ids());
+    }
+}
@@ -1,18 +1,63 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
 import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
 
-    List<Employee> getAllEmployees();
+    BulkImportResult saveEmployees(List<Employee> employees);
+
+    List<EmployeeView> getAllEmployees();
+
+    // getAllEmployees with the table version it was read at, for conditional GETs. known tests whether the caller
+    // already has a version, the listing is only read when it has not
+    EmployeeListing getEmployeeListing(LongPredicate known);
+
+    List<EmployeeSummary> getEmployeeSummaries();
+
+    EmployeePage getEmployeesPage(long afterId, int size);
+
+    EmployeeDelta getEmployeesChangedSince(EmployeeDelta.Token since, int limit);
+
+    void streamAllEmployees(Consumer<Employee> action);
 
     Optional<Employee> getEmployeeById(long id);
 
+    Optional<Employee> getEmployeeByEmail(String email);
+
+    // the version of an employee without loading it, empty when it is unknown, e.g. because there is no such employee
+    OptionalLong getEmployeeVersion(long id);
+
+    Slice<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size);
+
     Employee updateEmployee(Employee employeeToUpdate);
 
-    void deleteEmployee(long id);
+    // all or nothing, in one transaction
+    List<Employee> updateEmployees(List<Employee> employeesToUpdate);
+
+    // returns the new version, expectedVersion null means any version
+    long patchEmployee(long id, Long expectedVersion, EmployeePatch patch);
+
+    // false when no employee had the given id
+    boolean deleteEmployee(long id);
+
+    BulkDeleteResult deleteEmployees(Collection<Long> ids);
+
+    BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain);
 }
@@ -0,0 +1,144 @@
+package net.javaguides.springboot.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Read-through cache in front of getEmployeeById.
+ *
+ * A miss puts an incomplete future into the cache and loads on the calling thread, outside
+ * any map lock, so a slow query never pins the carrier of a virtual thread; concurrent reads
+ * of the same id join that future instead of querying again. Writes invalidate the id only
+ * after the wrapped service has returned, i.e. after the transaction committed. Invalidation
+ * removes a future that is still loading, whose result is then never cached, so a read that
+ * starts after the write returns can never get an older employee from the cache.
+ * Callers always receive a copy, so mutating a returned employee never touches the cache.
+ */
+public class CachingEmployeeService extends ForwardingEmployeeService {
+
+    private final AsyncCache<Long, Employee> cache;
+
+    public CachingEmployeeService(EmployeeService delegate, AsyncCache<Long, Employee> cache) {
+        super(delegate);
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        CompletableFuture<Employee> loading = new CompletableFuture<>();
+        CompletableFuture<Employee> cached = cache.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            // missing ids are not cached, a future completed with null leaves no entry behind
+            try {
+                loading.complete(super.getEmployeeById(id).map(CachingEmployeeService::copyOf).orElse(null));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return Optional.ofNullable(join(cached)).map(CachingEmployeeService::copyOf);
+    }
+
+    // a cached employee is the committed one, its version answers without a query
+    @Override
+    public OptionalLong getEmployeeVersion(long id) {
+        CompletableFuture<Employee> cached = cache.getIfPresent(id);
+        Employee employee = cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                ? cached.join()
+                : null;
+        return employee != null ? OptionalLong.of(employee.getVersion()) : super.getEmployeeVersion(id);
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        Employee savedEmployee = super.saveEmployee(employee);
+        cache.synchronous().invalidate(savedEmployee.getId());
+        return savedEmployee;
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employeeToUpdate) {
+        try {
+            return super.updateEmployee(employeeToUpdate);
+        } finally {
+            cache.synchronous().invalidate(employeeToUpdate.getId());
+        }
+    }
+
+    @Override
+    public List<Employee> updateEmployees(List<Employee> employeesToUpdate) {
+        try {
+            return super.updateEmployees(employeesToUpdate);
+        } finally {
+            cache.synchronous().invalidateAll(employeesToUpdate.stream().map(Employee::getId).toList());
+        }
+    }
+
+    @Override
+    public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        try {
+            return super.patchEmployee(id, expectedVersion, patch);
+        } finally {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        try {
+            return super.deleteEmployee(id);
+        } finally {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployees(Collection<Long> ids) {
+        try {
+            return super.deleteEmployees(ids);
+        } finally {
+            cache.synchronous().invalidateAll(ids);
+        }
+    }
+
+    // the matching ids are unknown here, so a filtered purge drops the whole cache
+    @Override
+    public BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain) {
+        try {
+            return super.deleteEmployeesByEmailDomain(emailDomain);
+        } finally {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    // a load that failed on another thread fails this read with the same exception
+    private static Employee join(CompletableFuture<Employee> cached) {
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return employee.toBuilder().build();
+    }
+}
@@ -1,37 +1,233 @@
 package net.javaguides.springboot.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeePatchedEvent;
+import net.javaguides.springboot.event.EmployeesDeletedEvent;
+import net.javaguides.springboot.event.EmployeesSavedEvent;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.exception.StaleVersionException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.TableVersion;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.TableVersionRepository;
 import net.javaguides.springboot.service.EmployeeService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// every public method is timed as employee.service{class, method}, cache hits in front of it are counted by cache.gets
 @Service
+@Timed(value = "employee.service", percentiles = {0.5, 0.99, 0.999}, histogram = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // a delta sync reads no closer to now than this, a margin for the replica serving it to catch up with commits
+    // on the primary. Write transactions still open are waited for through runningWrites, however long they take
+    private static final Duration DELTA_SETTLE_TIME = Duration.ofSeconds(5);
+
+    // ids per DELETE statement of a filtered purge, the same bound the controller puts on explicit id lists
+    private static final int DELETE_CHUNK_SIZE = 1000;
 
     private final EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final TableVersionRepository tableVersionRepository;
+
+    private final EntityManager entityManager;
+
+    // every write publishes an event in its transaction: EmployeeChangeRecorder adds the outbox rows to that
+    // transaction, listeners such as EmployeeSearchIndexUpdater pick it up after commit
+    private final ApplicationEventPublisher eventPublisher;
+
+    // start of every write transaction that has not completed yet. Timestamps are taken before commit, so rows
+    // stamped by a running transaction are only visible later, a delta sync must not read past its start
+    private final Map<Object, Instant> runningWrites = new ConcurrentHashMap<>();
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeChangeRepository employeeChangeRepository,
+                               TableVersionRepository tableVersionRepository, EntityManager entityManager,
+                               ApplicationEventPublisher eventPublisher) {
         this.employeeRepository = employeeRepository;
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.tableVersionRepository = tableVersionRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
     }
 
+    // no pre-check SELECT: the unique email constraint rejects duplicates atomically, even for concurrent requests
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exists with given email: " + employee.getEmail());
+        Write write = beginWrite();
+        try {
+            Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+            write.changed();
+            eventPublisher.publishEvent(new EmployeesSavedEvent(List.of(savedEmployee.toBuilder().build())));
+            return savedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConstraintViolation(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with given email: " + employee.getEmail(), e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public BulkImportResult saveEmployees(List<Employee> employees) {
+        Write write = beginWrite();
+        employees.forEach(employee -> employee.setEmail(Employee.normalizeEmail(employee.getEmail())));
+        Set<String> emails = employees.stream().map(Employee::getEmail).collect(Collectors.toSet());
+        Set<String> takenEmails = new HashSet<>(employeeRepository.findExistingEmails(emails));
+
+        List<Employee> newEmployees = new ArrayList<>(employees.size());
+        List<String> skippedEmails = new ArrayList<>();
+        for (Employee employee : employees) {
+            // also catches duplicates inside the chunk itself
+            if (!takenEmails.add(employee.getEmail())) {
+                skippedEmails.add(employee.getEmail());
+                continue;
+            }
+            // bulk import only creates employees, ids are always generated
+            employee.setId(0);
+            employee.setVersion(0);
+            newEmployees.add(employee);
+        }
+
+        employeeRepository.saveAll(newEmployees);
+        try {
+            // send the batched inserts now and release the managed copies before the next chunk
+            employeeRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConstraintViolation(e)) {
+                throw new ResourceAlreadyExistsException("Employee batch conflicts with a concurrently created email", e);
+            }
+            throw e;
+        }
+        entityManager.clear();
+        if (!newEmployees.isEmpty()) {
+            write.changed();
+            eventPublisher.publishEvent(new EmployeesSavedEvent(newEmployees));
+        }
+        return new BulkImportResult(newEmployees.size(), skippedEmails);
+    }
+
+    // listings return projections from read-only transactions: no entities, no snapshots and no flush at commit
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAllViews();
+    }
+
+    // one transaction, so one replica, for both. The version is read first: a write committing in between leaves it
+    // older than the listing and the next conditional GET gets the listing again rather than a 304 for unseen data
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeListing getEmployeeListing(LongPredicate known) {
+        long version = tableVersionRepository.findVersion(TableVersion.EMPLOYEES)
+                .orElseThrow(() -> new IllegalStateException("table_versions has no row for " + TableVersion.EMPLOYEES));
+        return new EmployeeListing(version, known.test(version) ? null : employeeRepository.findAllViews());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return employeeRepository.findAllSummaries();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesPage(long afterId, int size) {
+        List<Employee> employees = employeeRepository.findNextPage(afterId, PageRequest.ofSize(size));
+        String nextCursor = employees.size() < size
+                ? null
+                : EmployeePage.encodeCursor(employees.get(employees.size() - 1).getId());
+        return new EmployeePage(employees, nextCursor);
+    }
+
+    // modified rows and tombstones from the outbox, both by (time, id) keyset and merged into one page of at most
+    // limit entries. A full page ends at its last entry, the final page at the settle horizon, so the next sync
+    // continues exactly where this one ended
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeDelta getEmployeesChangedSince(EmployeeDelta.Token since, int limit) {
+        Instant horizon = settledHorizon();
+        if (!since.updatedAt().isBefore(horizon)) {
+            return new EmployeeDelta(List.of(), List.of(), since.encode(), false);
         }
 
-        return employeeRepository.save(employee);
+        List<EmployeeView> changed = employeeRepository.findChangedSince(since.updatedAt(), since.id(), horizon,
+                PageRequest.ofSize(limit + 1));
+        List<EmployeeChange> tombstones = employeeChangeRepository.findChangedSince(EmployeeChange.Type.DELETED,
+                since.updatedAt(), since.id(), horizon, PageRequest.ofSize(limit + 1));
+        boolean hasMore = changed.size() + tombstones.size() > limit;
+        EmployeeDelta.Token next = new EmployeeDelta.Token(horizon, Long.MAX_VALUE);
+        if (hasMore) {
+            // the limit-th entry of both lists merged, neither list has more than limit entries up to it
+            int fromChanged = 0;
+            int fromTombstones = 0;
+            for (int taken = 0; taken < limit; taken++) {
+                boolean changedFirst = fromTombstones == tombstones.size() || fromChanged < changed.size()
+                        && EmployeeDelta.Token.ORDER.compare(positionOf(changed.get(fromChanged)),
+                                positionOf(tombstones.get(fromTombstones))) < 0;
+                next = changedFirst
+                        ? positionOf(changed.get(fromChanged++))
+                        : positionOf(tombstones.get(fromTombstones++));
+            }
+            changed = changed.subList(0, fromChanged);
+            tombstones = tombstones.subList(0, fromTombstones);
+        }
+
+        List<Long> deleted = tombstones.stream().map(EmployeeChange::getEmployeeId).distinct().toList();
+        return new EmployeeDelta(changed, deleted, next.encode(), hasMore);
     }
 
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> action) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                action.accept(employee);
+                // drop the row from the persistence context so memory stays flat however big the table is
+                entityManager.detach(employee);
+            });
+        }
     }
 
     @Override
@@ -40,12 +236,225 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return employeeRepository.findByEmail(email);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OptionalLong getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id).map(OptionalLong::of).orElseGet(OptionalLong::empty);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("lastName", "firstName", "id"));
+        return employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith(
+                lastNamePrefix, firstNamePrefix == null ? "" : firstNamePrefix, pageRequest, EmployeeView.class);
+    }
+
+    // the version of employeeToUpdate is checked against the row, an update committed since it was read is a stale
+    // version like a failed If-Match, not a lost update
+    @Override
+    @Transactional
     public Employee updateEmployee(Employee employeeToUpdate) {
-        return employeeRepository.save(employeeToUpdate);
+        Write write = beginWrite();
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeRepository.save(employeeToUpdate);
+            // the event carries the new version, which is only assigned when the UPDATE is flushed
+            employeeRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new StaleVersionException("Employee " + employeeToUpdate.getId() + " is no longer at version "
+                    + employeeToUpdate.getVersion(), e);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConstraintViolation(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with given email: " + employeeToUpdate.getEmail(), e);
+            }
+            throw e;
+        }
+        // an update that changes no column is not sent, the version stays
+        if (updatedEmployee.getVersion() != employeeToUpdate.getVersion()) {
+            write.changed();
+        }
+        eventPublisher.publishEvent(new EmployeesSavedEvent(List.of(updatedEmployee.toBuilder().build())));
+        return updatedEmployee;
     }
 
+    // the UPDATEs go out as JDBC batches, a failing row rolls back the whole list
     @Override
-    public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    public List<Employee> updateEmployees(List<Employee> employeesToUpdate) {
+        Write write = beginWrite();
+        List<Employee> updatedEmployees;
+        try {
+            updatedEmployees = employeeRepository.saveAll(employeesToUpdate);
+            employeeRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new StaleVersionException("Employee " + e.getIdentifier() + " is no longer at the version it was read at", e);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConstraintViolation(e)) {
+                throw new ResourceAlreadyExistsException("Employee batch updates an email to one already taken", e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < updatedEmployees.size(); i++) {
+            if (updatedEmployees.get(i).getVersion() != employeesToUpdate.get(i).getVersion()) {
+                write.changed();
+            }
+        }
+        eventPublisher.publishEvent(new EmployeesSavedEvent(
+                updatedEmployees.stream().map(employee -> employee.toBuilder().build()).toList()));
+        return updatedEmployees;
+    }
+
+    // a single UPDATE instead of load + merge, the version predicate makes concurrent patches fail instead of
+    // silently overwriting each other. Only when no row matched does a second query tell 404 from 412 apart
+    @Override
+    @Transactional
+    public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        Write write = beginWrite();
+        if (patch.getEmail() != null) {
+            patch.setEmail(Employee.normalizeEmail(patch.getEmail()));
+        }
+
+        int updated;
+        try {
+            updated = employeeRepository.patchEmployee(id, expectedVersion, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConstraintViolation(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with given email: " + patch.getEmail(), e);
+            }
+            throw e;
+        }
+
+        if (updated == 0) {
+            if (!employeeRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Employee not found with id: " + id);
+            }
+            throw new StaleVersionException("Employee " + id + " is no longer at version " + expectedVersion);
+        }
+        write.changed();
+        long version = expectedVersion != null ? expectedVersion + 1 : employeeRepository.findVersionById(id).orElseThrow();
+        eventPublisher.publishEvent(new EmployeePatchedEvent(id, version, patch));
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(long id) {
+        Write write = beginWrite();
+        boolean deleted = employeeRepository.deleteEmployeeById(id) > 0;
+        if (deleted) {
+            write.changed();
+            eventPublisher.publishEvent(new EmployeesDeletedEvent(List.of(id)));
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public BulkDeleteResult deleteEmployees(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return BulkDeleteResult.empty();
+        }
+        Write write = beginWrite();
+        // tombstones only for rows that existed, not for every requested id
+        List<Long> existing = employeeRepository.lockExistingIds(ids);
+        if (existing.isEmpty()) {
+            return BulkDeleteResult.empty();
+        }
+        employeeRepository.deleteEmployeesByIds(existing);
+        write.changed();
+        eventPublisher.publishEvent(new EmployeesDeletedEvent(existing));
+        return new BulkDeleteResult(existing);
+    }
+
+    // emails are stored normalized, so the domain is lower-cased and matched as a literal suffix. A suffix match
+    // cannot use the email index and scans the table once; the ids are selected and locked first so that every
+    // removed employee gets its own tombstone in the outbox, then deleted in IN lists of at most DELETE_CHUNK_SIZE ids
+    @Override
+    @Transactional
+    public BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain) {
+        Write write = beginWrite();
+        String domain = Employee.normalizeEmail(emailDomain)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        List<Long> ids = employeeRepository.lockIdsByEmailLike("%@" + domain);
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = List.copyOf(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
+            employeeRepository.deleteEmployeesByIds(chunk);
+            write.changed();
+            eventPublisher.publishEvent(new EmployeesDeletedEvent(chunk));
+        }
+        return new BulkDeleteResult(ids);
+    }
+
+    // registers the current transaction in runningWrites until it completes, called before it stamps anything.
+    // The employees table version is only incremented once the write reports a changed row, see Write
+    private Write beginWrite() {
+        Write write = new Write();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            runningWrites.put(write, Instant.now());
+            TransactionSynchronizationManager.registerSynchronization(write);
+        }
+        return write;
+    }
+
+    // now is taken before the running writes are read: a write registering in between starts after the horizon.
+    // The horizon stays a millisecond before the oldest start, below the precision of the stored timestamps
+    private Instant settledHorizon() {
+        Instant horizon = Instant.now().minus(DELTA_SETTLE_TIME);
+        for (Instant started : runningWrites.values()) {
+            Instant beforeStart = started.minusMillis(1);
+            if (beforeStart.isBefore(horizon)) {
+                horizon = beforeStart;
+            }
+        }
+        return horizon;
+    }
+
+    // increments the employees table version before commit if a row changed, a write that found nothing to change
+    // keeps the listing ETag. Every writer serializes on that row, so it is only locked once the changes are flushed
+    // and no lock on an employee row is waited for while holding it
+    private class Write implements TransactionSynchronization {
+
+        private boolean changed;
+
+        void changed() {
+            changed = true;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!changed) {
+                return;
+            }
+            entityManager.flush();
+            if (tableVersionRepository.incrementVersion(TableVersion.EMPLOYEES) == 0) {
+                throw new IllegalStateException("table_versions has no row for " + TableVersion.EMPLOYEES);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            runningWrites.remove(this);
+        }
+    }
+
+    private static EmployeeDelta.Token positionOf(EmployeeView view) {
+        return new EmployeeDelta.Token(view.updatedAt(), view.id());
+    }
+
+    private static EmployeeDelta.Token positionOf(EmployeeChange change) {
+        return new EmployeeDelta.Token(change.getOccurredAt(), change.getEmployeeId());
+    }
+
+    private static boolean isEmailConstraintViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+// base class for EmployeeService decorators, forwards every call to the wrapped service
+public abstract class ForwardingEmployeeService implements EmployeeService, AutoCloseable {
+
+    private final EmployeeService delegate;
+
+    protected ForwardingEmployeeService(EmployeeService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        return delegate.saveEmployee(employee);
+    }
+
+    @Override
+    public BulkImportResult saveEmployees(List<Employee> employees) {
+        return delegate.saveEmployees(employees);
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public EmployeeListing getEmployeeListing(LongPredicate known) {
+        return delegate.getEmployeeListing(known);
+    }
+
+    @Override
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return delegate.getEmployeeSummaries();
+    }
+
+    @Override
+    public EmployeePage getEmployeesPage(long afterId, int size) {
+        return delegate.getEmployeesPage(afterId, size);
+    }
+
+    @Override
+    public EmployeeDelta getEmployeesChangedSince(EmployeeDelta.Token since, int limit) {
+        return delegate.getEmployeesChangedSince(since, limit);
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> action) {
+        delegate.streamAllEmployees(action);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        return delegate.getEmployeeById(id);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return delegate.getEmployeeByEmail(email);
+    }
+
+    @Override
+    public OptionalLong getEmployeeVersion(long id) {
+        return delegate.getEmployeeVersion(id);
+    }
+
+    @Override
+    public Slice<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+        return delegate.searchEmployeesByName(lastNamePrefix, firstNamePrefix, page, size);
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employeeToUpdate) {
+        return delegate.updateEmployee(employeeToUpdate);
+    }
+
+    @Override
+    public List<Employee> updateEmployees(List<Employee> employeesToUpdate) {
+        return delegate.updateEmployees(employeesToUpdate);
+    }
+
+    @Override
+    public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        return delegate.patchEmployee(id, expectedVersion, patch);
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        return delegate.deleteEmployee(id);
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployees(Collection<Long> ids) {
+        return delegate.deleteEmployees(ids);
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain) {
+        return delegate.deleteEmployeesByEmailDomain(emailDomain);
+    }
+
+    // closes the decorators below this one, the bean's destroy method releases the threads of the whole chain
+    @Override
+    public void close() {
+        if (delegate instanceof ForwardingEmployeeService forwarding) {
+            forwarding.close();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.ShardKeyChangeException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.sharding.EmployeeShards;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Routes every call of the wrapped service to the shards holding its employees, see EmployeeShards.
+ * Calls by id or email go to one shard, listings ask every shard in parallel and merge the results in the order
+ * a single database would have returned them.
+ *
+ * Shard calls run on virtual threads of their own: the request thread's open-in-view EntityManager keeps the
+ * connection it first got, it must never be used for another shard. Bulk writes spanning several shards commit
+ * once per shard, a failing shard does not roll back the others. close() waits for the shard calls still running.
+ */
+public class ShardedEmployeeService extends ForwardingEmployeeService {
+
+    private static final Comparator<EmployeeView> BY_NAME = Comparator.comparing(EmployeeView::lastName)
+            .thenComparing(EmployeeView::firstName)
+            .thenComparingLong(EmployeeView::id);
+
+    private final EmployeeShards employeeShards;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("employee-shard-", 0).factory());
+
+    public ShardedEmployeeService(EmployeeService delegate, EmployeeShards employeeShards) {
+        super(delegate);
+        this.employeeShards = employeeShards;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        return onShard(employeeShards.shardOfEmail(employee.getEmail()), () -> super.saveEmployee(employee));
+    }
+
+    @Override
+    public BulkImportResult saveEmployees(List<Employee> employees) {
+        return forEachShard(byShard(employees, employee -> employeeShards.shardOfEmail(employee.getEmail())),
+                super::saveEmployees)
+                .stream()
+                .reduce(BulkImportResult.empty(), BulkImportResult::plus);
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        return onEveryShard(super::getAllEmployees).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(EmployeeView::id))
+                .toList();
+    }
+
+    // every shard counts its own writes, the sum changes with a write to any of them. Versions alone decide whether
+    // the caller is up to date, otherwise every shard reads its listing together with its version again
+    @Override
+    public EmployeeListing getEmployeeListing(LongPredicate known) {
+        long version = onEveryShard(() -> super.getEmployeeListing(shardVersion -> true)).stream()
+                .mapToLong(EmployeeListing::version)
+                .sum();
+        if (known.test(version)) {
+            return new EmployeeListing(version, null);
+        }
+        List<EmployeeListing> listings = onEveryShard(() -> super.getEmployeeListing(shardVersion -> false));
+        return new EmployeeListing(listings.stream().mapToLong(EmployeeListing::version).sum(),
+                listings.stream()
+                        .flatMap(listing -> listing.employees().stream())
+                        .sorted(Comparator.comparingLong(EmployeeView::id))
+                        .toList());
+    }
+
+    @Override
+    public List<EmployeeSummary> getEmployeeSummaries() {
+        return onEveryShard(super::getEmployeeSummaries).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(EmployeeSummary::id))
+                .toList();
+    }
+
+    // every shard returns its next size ids, the smallest size of them all are the page
+    @Override
+    public EmployeePage getEmployeesPage(long afterId, int size) {
+        List<Employee> employees = onEveryShard(() -> super.getEmployeesPage(afterId, size).getContent()).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(Employee::getId))
+                .limit(size)
+                .toList();
+        String nextCursor = employees.size() < size
+                ? null
+                : EmployeePage.encodeCursor(employees.get(employees.size() - 1).getId());
+        return new EmployeePage(employees, nextCursor);
+    }
+
+    // a shard that has more rows only answered up to its token, so the merged delta ends at the first such token
+    // or at the limit-th row. When every shard is done the earliest settle horizon is where the next sync starts,
+    // rows between it and a later shard's horizon are sent again then
+    @Override
+    public EmployeeDelta getEmployeesChangedSince(EmployeeDelta.Token since, int limit) {
+        List<EmployeeDelta> deltas = onEveryShard(() -> super.getEmployeesChangedSince(since, limit));
+        List<EmployeeView> changed = deltas.stream()
+                .flatMap(delta -> delta.changed().stream())
+                .sorted(Comparator.comparing(ShardedEmployeeService::positionOf, EmployeeDelta.Token.ORDER))
+                .toList();
+        List<Long> deleted = deltas.stream()
+                .flatMap(delta -> delta.deleted().stream())
+                .distinct()
+                .toList();
+
+        Optional<EmployeeDelta.Token> cutoff = deltas.stream()
+                .filter(EmployeeDelta::hasMore)
+                .map(delta -> EmployeeDelta.Token.decode(delta.nextToken()))
+                .min(EmployeeDelta.Token.ORDER);
+        if (changed.size() > limit) {
+            EmployeeDelta.Token last = positionOf(changed.get(limit - 1));
+            cutoff = Optional.of(cutoff.filter(token -> EmployeeDelta.Token.ORDER.compare(token, last) < 0).orElse(last));
+        }
+        if (cutoff.isEmpty()) {
+            EmployeeDelta.Token next = deltas.stream()
+                    .map(delta -> EmployeeDelta.Token.decode(delta.nextToken()))
+                    .min(EmployeeDelta.Token.ORDER)
+                    .orElse(since);
+            return new EmployeeDelta(changed, deleted, next.encode(), false);
+        }
+
+        EmployeeDelta.Token end = cutoff.get();
+        List<EmployeeView> complete = changed.stream()
+                .filter(view -> EmployeeDelta.Token.ORDER.compare(positionOf(view), end) <= 0)
+                .toList();
+        return new EmployeeDelta(complete, deleted, end.encode(), true);
+    }
+
+    // one shard after the other, the action is never called concurrently
+    @Override
+    public void streamAllEmployees(Consumer<Employee> action) {
+        for (int shard = 0; shard < employeeShards.shardCount(); shard++) {
+            onShard(shard, () -> {
+                super.streamAllEmployees(action);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        return onShard(employeeShards.shardOf(id), () -> super.getEmployeeById(id));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return onShard(employeeShards.shardOfEmail(email), () -> super.getEmployeeByEmail(email));
+    }
+
+    @Override
+    public OptionalLong getEmployeeVersion(long id) {
+        return onShard(employeeShards.shardOf(id), () -> super.getEmployeeVersion(id));
+    }
+
+    // every shard returns its first (page + 1) * size matches, enough to cut the requested page from the merge.
+    // The controller bounds that depth, a caller going past int gets an ArithmeticException rather than a bad page
+    @Override
+    public Slice<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+        int needed = Math.multiplyExact(Math.addExact(page, 1), size);
+        List<Slice<EmployeeView>> slices = onEveryShard(
+                () -> super.searchEmployeesByName(lastNamePrefix, firstNamePrefix, 0, needed));
+        List<EmployeeView> merged = slices.stream()
+                .flatMap(slice -> slice.getContent().stream())
+                .sorted(BY_NAME)
+                .toList();
+        boolean hasNext = merged.size() > needed || slices.stream().anyMatch(Slice::hasNext);
+        List<EmployeeView> content = merged.stream().skip((long) page * size).limit(size).toList();
+        return new SliceImpl<>(content, PageRequest.of(page, size, Sort.by("lastName", "firstName", "id")), hasNext);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+        super.close();
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employeeToUpdate) {
+        checkShardKey(employeeToUpdate.getId(), employeeToUpdate.getEmail());
+        return onShard(employeeShards.shardOf(employeeToUpdate.getId()), () -> super.updateEmployee(employeeToUpdate));
+    }
+
+    // all or nothing per shard, the result keeps the order of the given list
+    @Override
+    public List<Employee> updateEmployees(List<Employee> employeesToUpdate) {
+        employeesToUpdate.forEach(employee -> checkShardKey(employee.getId(), employee.getEmail()));
+        Map<Integer, List<Integer>> positionsByShard = byShard(
+                IntStream.range(0, employeesToUpdate.size()).boxed().toList(),
+                position -> employeeShards.shardOf(employeesToUpdate.get(position).getId()));
+
+        Map<Integer, CompletableFuture<List<Employee>>> updates = new TreeMap<>();
+        positionsByShard.forEach((shard, positions) -> {
+            List<Employee> employees = positions.stream().map(employeesToUpdate::get).toList();
+            updates.put(shard, submit(shard, () -> super.updateEmployees(employees)));
+        });
+        Employee[] updatedEmployees = new Employee[employeesToUpdate.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<Employee> updated = join(updates.get(shard));
+            for (int i = 0; i < positions.size(); i++) {
+                updatedEmployees[positions.get(i)] = updated.get(i);
+            }
+        });
+        return List.of(updatedEmployees);
+    }
+
+    @Override
+    public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        checkShardKey(id, patch.getEmail());
+        return onShard(employeeShards.shardOf(id), () -> super.patchEmployee(id, expectedVersion, patch));
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        return onShard(employeeShards.shardOf(id), () -> super.deleteEmployee(id));
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployees(Collection<Long> ids) {
+        return forEachShard(byShard(ids, employeeShards::shardOf), super::deleteEmployees).stream()
+                .reduce(BulkDeleteResult.empty(), BulkDeleteResult::plus);
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain) {
+        return onEveryShard(() -> super.deleteEmployeesByEmailDomain(emailDomain)).stream()
+                .reduce(BulkDeleteResult.empty(), BulkDeleteResult::plus);
+    }
+
+    // the id carries the bucket of the email the employee was created with, an email of another bucket would
+    // leave the employee on a shard where lookups by that email never look
+    private static void checkShardKey(long id, String email) {
+        if (email != null && EmployeeShards.bucketOfEmail(email) != EmployeeShards.bucketOf(id)) {
+            throw new ShardKeyChangeException("Employee " + id + " cannot change its email to " + email
+                    + ", the email belongs to another shard");
+        }
+    }
+
+    private static EmployeeDelta.Token positionOf(EmployeeView view) {
+        return new EmployeeDelta.Token(view.updatedAt(), view.id());
+    }
+
+    private static <T> Map<Integer, List<T>> byShard(Collection<T> items, ToIntFunction<T> shardOf) {
+        Map<Integer, List<T>> itemsByShard = new TreeMap<>();
+        for (T item : items) {
+            itemsByShard.computeIfAbsent(shardOf.applyAsInt(item), shard -> new ArrayList<>()).add(item);
+        }
+        return itemsByShard;
+    }
+
+    private <T> T onShard(int shard, Supplier<T> work) {
+        return join(submit(shard, work));
+    }
+
+    private <T> List<T> onEveryShard(Supplier<T> work) {
+        List<CompletableFuture<T>> results = IntStream.range(0, employeeShards.shardCount())
+                .mapToObj(shard -> submit(shard, work))
+                .toList();
+        return results.stream().map(ShardedEmployeeService::join).toList();
+    }
+
+    private <T, R> List<R> forEachShard(Map<Integer, List<T>> itemsByShard, Function<List<T>, R> work) {
+        List<CompletableFuture<R>> results = itemsByShard.entrySet().stream()
+                .map(entry -> submit(entry.getKey(), () -> work.apply(entry.getValue())))
+                .toList();
+        return results.stream().map(ShardedEmployeeService::join).toList();
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> employeeShards.onShard(shard, work), executor);
+    }
+
+    // rethrows what the shard call threw, callers see the same exceptions as without sharding
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
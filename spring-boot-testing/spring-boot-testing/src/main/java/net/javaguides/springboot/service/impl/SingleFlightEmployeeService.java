@@ -0,0 +1,223 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deduplicates concurrent identical reads: a getEmployeeByEmail or searchEmployeesByName call that finds the same
+ * call already running waits for it and gets its result instead of querying again. Callers never share an Employee
+ * instance, each one gets its own copy. Id lookups are not deduplicated here, the id cache in front of this service
+ * already has a single load per missing id running.
+ *
+ * A read that starts after a write has returned never joins a query that was started before it: writes drop every
+ * running email and name lookup from the table of calls to join. Nor does a read pinned to the primary by
+ * read-your-writes join one running against a replica that may not have its write yet: pinned and unpinned
+ * reads of the same key run as separate calls.
+ */
+public class SingleFlightEmployeeService extends ForwardingEmployeeService {
+
+    public static final List<String> METHODS = List.of("getEmployeeByEmail", "searchEmployeesByName");
+
+    private final Flights<String, Optional<Employee>> byEmail = new Flights<>();
+
+    private final Flights<NameQuery, Slice<EmployeeView>> byName = new Flights<>();
+
+    // whether the calling thread reads from the primary
+    private final BooleanSupplier pinnedToPrimary;
+
+    public SingleFlightEmployeeService(EmployeeService delegate) {
+        this(delegate, () -> false);
+    }
+
+    public SingleFlightEmployeeService(EmployeeService delegate, BooleanSupplier pinnedToPrimary) {
+        super(delegate);
+        this.pinnedToPrimary = pinnedToPrimary;
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return byEmail.execute(Employee.normalizeEmail(email), pinnedToPrimary.getAsBoolean(), () -> super.getEmployeeByEmail(email),
+                SingleFlightEmployeeService::copyOf);
+    }
+
+    // slices of records are never modified, the callers share one
+    @Override
+    public Slice<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+        NameQuery query = new NameQuery(lastNamePrefix, firstNamePrefix == null ? "" : firstNamePrefix, page, size);
+        return byName.execute(query, pinnedToPrimary.getAsBoolean(), () -> super.searchEmployeesByName(lastNamePrefix, firstNamePrefix, page, size),
+                UnaryOperator.identity());
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        try {
+            return super.saveEmployee(employee);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public BulkImportResult saveEmployees(List<Employee> employees) {
+        try {
+            return super.saveEmployees(employees);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employeeToUpdate) {
+        try {
+            return super.updateEmployee(employeeToUpdate);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public List<Employee> updateEmployees(List<Employee> employeesToUpdate) {
+        try {
+            return super.updateEmployees(employeesToUpdate);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        try {
+            return super.patchEmployee(id, expectedVersion, patch);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        try {
+            return super.deleteEmployee(id);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployees(Collection<Long> ids) {
+        try {
+            return super.deleteEmployees(ids);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain) {
+        try {
+            return super.deleteEmployeesByEmailDomain(emailDomain);
+        } finally {
+            forgetLookups();
+        }
+    }
+
+    // calls of the method that ran the query
+    public long executedCount(String method) {
+        return flights(method).executed.sum();
+    }
+
+    // calls of the method that joined a query already running
+    public long coalescedCount(String method) {
+        return flights(method).coalesced.sum();
+    }
+
+    private Flights<?, ?> flights(String method) {
+        return switch (method) {
+            case "getEmployeeByEmail" -> byEmail;
+            case "searchEmployeesByName" -> byName;
+            default -> throw new IllegalArgumentException("Not a deduplicated method: " + method);
+        };
+    }
+
+    // a saved or updated employee can now match any email or name lookup
+    private void forgetLookups() {
+        byEmail.forgetAll();
+        byName.forgetAll();
+    }
+
+    private static Optional<Employee> copyOf(Optional<Employee> employee) {
+        return employee.map(found -> found.toBuilder().build());
+    }
+
+    private record NameQuery(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+    }
+
+    private record Flight<K>(K key, boolean primary) {
+    }
+
+    // the calls running per key, the first caller of a key runs it and completes the future the others wait for
+    private static class Flights<K, V> {
+
+        private final ConcurrentMap<Flight<K>, CompletableFuture<V>> running = new ConcurrentHashMap<>();
+
+        private final LongAdder executed = new LongAdder();
+
+        private final LongAdder coalesced = new LongAdder();
+
+        V execute(K key, boolean primary, Supplier<V> call, UnaryOperator<V> copy) {
+            Flight<K> flightKey = new Flight<>(key, primary);
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> runningFlight = running.putIfAbsent(flightKey, flight);
+            if (runningFlight != null) {
+                coalesced.increment();
+                return copy.apply(join(runningFlight));
+            }
+            executed.increment();
+            try {
+                V result = call.get();
+                flight.complete(result);
+                return copy.apply(result);
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                running.remove(flightKey, flight);
+            }
+        }
+
+        void forgetAll() {
+            running.clear();
+        }
+
+        // the joining caller gets the exception the running call threw
+        private static <V> V join(CompletableFuture<V> flight) {
+            try {
+                return flight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
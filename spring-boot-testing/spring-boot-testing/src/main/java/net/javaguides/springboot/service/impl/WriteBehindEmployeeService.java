@@ -0,0 +1,486 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.exception.WriteRejectedException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind decorator for bulk ingest: saveEmployee, updateEmployee and deleteEmployee are queued and written
+ * by a single flusher thread in batches, as soon as batchSize writes are queued or flushInterval after the oldest.
+ *
+ * getEmployeeById sees queued updates and deletes, all other reads only see what has been written. A queued update
+ * is read with the version it gets once written. Under QUEUED an update replaces a queued update of the same id
+ * made from the same version or from that read, only the last one reaches the database, written with the base
+ * version. Any other write to a queued id waits until the queued write is being written and then goes out with the
+ * next batch, so writes are never coalesced across a delete and DURABLE callers get the outcome of their own write.
+ * An update of an id whose delete is queued fails right away with ResourceNotFoundException. Once an update is
+ * being written it is no longer replaced, a later update based on an older read fails on its version like any
+ * concurrent update.
+ *
+ * With Acknowledgement.QUEUED a write returns once it is queued: updateEmployee returns a copy with the version it
+ * gets once written, and failed writes are only logged. Under QUEUED deleteEmployee returns true once the employee
+ * is gone, also when it never existed. DURABLE, the default, waits until the batch holding the write has been
+ * committed and reports its real outcome, concurrent callers share one commit. saveEmployee always waits, the
+ * generated id is part of its result.
+ *
+ * When capacity distinct writes are queued, writers block for up to enqueueTimeout and then get a
+ * WriteRejectedException. Every other write flushes the queue first, so writes to one id are never reordered.
+ * close() stops accepting writes and drains the queue.
+ */
+public class WriteBehindEmployeeService extends ForwardingEmployeeService {
+
+    public enum Acknowledgement {
+        QUEUED,
+        DURABLE
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindEmployeeService.class);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final Duration flushInterval;
+
+    private final Duration enqueueTimeout;
+
+    private final Acknowledgement acknowledgement;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // signalled for new writes, flush requests and close
+    private final Condition writesQueued = lock.newCondition();
+
+    // signalled whenever the flusher took a batch, which also frees the ids in it for writes waiting on them
+    private final Condition spaceAvailable = lock.newCondition();
+
+    // all guarded by lock: queued creates in arrival order, queued updates and deletes by id,
+    // and the updates and deletes the flusher is writing right now
+    private final List<PendingWrite> queuedCreates = new ArrayList<>();
+
+    private final Map<Long, PendingWrite> queuedWrites = new LinkedHashMap<>();
+
+    private final Map<Long, PendingWrite> writesInFlight = new HashMap<>();
+
+    private long oldestQueuedNanos;
+
+    private boolean flushRequested;
+
+    private boolean closed;
+
+    private final Thread flusher;
+
+    public WriteBehindEmployeeService(EmployeeService delegate, int capacity, int batchSize, Duration flushInterval,
+                                      Duration enqueueTimeout, Acknowledgement acknowledgement) {
+        super(delegate);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.enqueueTimeout = enqueueTimeout;
+        this.acknowledgement = acknowledgement;
+        this.flusher = new Thread(this::runFlusher, "employee-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        return (Employee) await(enqueue(PendingWrite.create(employee)));
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employeeToUpdate) {
+        // queued as a copy, the caller may go on changing its instance
+        PendingWrite update = PendingWrite.update(employeeToUpdate.toBuilder().build());
+        CompletableFuture<Object> result = enqueue(update);
+        return acknowledgement == Acknowledgement.DURABLE ? (Employee) await(result) : update.asWritten();
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        CompletableFuture<Object> result = enqueue(PendingWrite.delete(id));
+        return acknowledgement != Acknowledgement.DURABLE || (Boolean) await(result);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        lock.lock();
+        try {
+            PendingWrite write = queuedWrites.containsKey(id) ? queuedWrites.get(id) : writesInFlight.get(id);
+            if (write != null) {
+                return write.employee() == null ? Optional.empty() : Optional.of(write.asWritten());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return super.getEmployeeById(id);
+    }
+
+    // a queued write has no version yet
+    @Override
+    public OptionalLong getEmployeeVersion(long id) {
+        lock.lock();
+        try {
+            if (queuedWrites.containsKey(id) || writesInFlight.containsKey(id)) {
+                return OptionalLong.empty();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return super.getEmployeeVersion(id);
+    }
+
+    @Override
+    public BulkImportResult saveEmployees(List<Employee> employees) {
+        flush();
+        return super.saveEmployees(employees);
+    }
+
+    @Override
+    public List<Employee> updateEmployees(List<Employee> employeesToUpdate) {
+        flush();
+        return super.updateEmployees(employeesToUpdate);
+    }
+
+    @Override
+    public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+        flush();
+        return super.patchEmployee(id, expectedVersion, patch);
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployees(Collection<Long> ids) {
+        flush();
+        return super.deleteEmployees(ids);
+    }
+
+    @Override
+    public BulkDeleteResult deleteEmployeesByEmailDomain(String emailDomain) {
+        flush();
+        return super.deleteEmployeesByEmailDomain(emailDomain);
+    }
+
+    // returns once every write queued before the call has been written, successfully or not
+    public void flush() {
+        List<CompletableFuture<Object>> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            queuedCreates.forEach(write -> pending.add(write.result()));
+            queuedWrites.values().forEach(write -> pending.add(write.result()));
+            writesInFlight.values().forEach(write -> pending.add(write.result()));
+            flushRequested = true;
+            writesQueued.signal();
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).handle((ignored, failure) -> null).join();
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return queuedSize() + writesInFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            writesQueued.signalAll();
+            spaceAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(DRAIN_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("Write-behind queue not drained within {}, {} writes pending", DRAIN_TIMEOUT, pendingCount());
+        }
+        super.close();
+    }
+
+    private CompletableFuture<Object> enqueue(PendingWrite write) {
+        lock.lock();
+        try {
+            long remainingNanos = enqueueTimeout.toNanos();
+            while (!closed) {
+                PendingWrite queued = write.isCreate() ? null : queuedWrites.get(write.id());
+                if (queued != null && !write.canReplace(queued, acknowledgement)) {
+                    if (queued.employee() == null && write.employee() != null) {
+                        throw new ResourceNotFoundException("Employee not found with id: " + write.id());
+                    }
+                    // not a wait for space: the flush request has the queued write taken with the next batch
+                    flushRequested = true;
+                    writesQueued.signal();
+                    spaceAvailable.await();
+                    continue;
+                }
+                if (hasSpaceFor(write)) {
+                    break;
+                }
+                if (remainingNanos <= 0) {
+                    throw new WriteRejectedException("Write-behind queue is full, " + capacity + " writes pending");
+                }
+                remainingNanos = spaceAvailable.awaitNanos(remainingNanos);
+            }
+            if (closed) {
+                throw new WriteRejectedException("Write-behind queue is closed");
+            }
+            if (queuedSize() == 0) {
+                oldestQueuedNanos = System.nanoTime();
+            }
+            if (write.isCreate()) {
+                queuedCreates.add(write);
+            } else {
+                PendingWrite superseded = queuedWrites.put(write.id(), write);
+                if (superseded != null) {
+                    superseded.completeWith(write);
+                    write.rebaseOn(superseded);
+                }
+            }
+            writesQueued.signal();
+            return write.result();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteRejectedException("Interrupted while waiting for space in the write-behind queue");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // a write replacing the queued write of its id needs no space of its own
+    private boolean hasSpaceFor(PendingWrite write) {
+        return queuedSize() < capacity || (!write.isCreate() && queuedWrites.containsKey(write.id()));
+    }
+
+    private int queuedSize() {
+        return queuedCreates.size() + queuedWrites.size();
+    }
+
+    private void runFlusher() {
+        while (true) {
+            List<PendingWrite> batch;
+            lock.lock();
+            try {
+                while (queuedSize() == 0 && !closed) {
+                    writesQueued.awaitUninterruptibly();
+                }
+                if (queuedSize() == 0) {
+                    return;
+                }
+                while (!closed && !flushRequested && queuedSize() < batchSize) {
+                    long waitNanos = oldestQueuedNanos + flushInterval.toNanos() - System.nanoTime();
+                    if (waitNanos <= 0) {
+                        break;
+                    }
+                    writesQueued.awaitNanos(waitNanos);
+                }
+                batch = takeBatch();
+                if (queuedSize() == 0) {
+                    flushRequested = false;
+                }
+                spaceAvailable.signalAll();
+            } catch (InterruptedException e) {
+                // the flusher is never interrupted by this class, keep draining
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                batch.forEach(write -> write.result().completeExceptionally(e));
+            } finally {
+                lock.lock();
+                try {
+                    batch.forEach(write -> writesInFlight.remove(write.id(), write));
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    // guarded by lock, the remaining writes are older than flushInterval by now and go out with the next batch
+    private List<PendingWrite> takeBatch() {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, queuedSize()));
+        Iterator<PendingWrite> creates = queuedCreates.iterator();
+        while (batch.size() < batchSize && creates.hasNext()) {
+            batch.add(creates.next());
+            creates.remove();
+        }
+        Iterator<PendingWrite> writes = queuedWrites.values().iterator();
+        while (batch.size() < batchSize && writes.hasNext()) {
+            PendingWrite write = writes.next();
+            writes.remove();
+            writesInFlight.put(write.id(), write);
+            batch.add(write);
+        }
+        return batch;
+    }
+
+    // one transaction each for the creates, the updates and the deletes of a batch
+    private void write(List<PendingWrite> batch) {
+        List<PendingWrite> creates = new ArrayList<>();
+        List<PendingWrite> updates = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        List<PendingWrite> deleteWrites = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            if (write.isCreate()) {
+                creates.add(write);
+            } else if (write.employee() != null) {
+                updates.add(write);
+            } else {
+                deletes.add(write.id());
+                deleteWrites.add(write);
+            }
+        }
+        if (!creates.isEmpty()) {
+            writeCreates(creates);
+        }
+        if (!updates.isEmpty()) {
+            writeUpdates(updates);
+        }
+        if (!deletes.isEmpty()) {
+            Set<Long> deleted = new HashSet<>(super.deleteEmployees(deletes).getDeletedIds());
+            deleteWrites.forEach(write -> write.result().complete(deleted.contains(write.id())));
+        }
+    }
+
+    private void writeCreates(List<PendingWrite> creates) {
+        List<Employee> employees = creates.stream().map(PendingWrite::employee).toList();
+        try {
+            // generated ids are assigned to these instances, duplicates keep id 0 and are reported as skipped
+            super.saveEmployees(employees);
+        } catch (RuntimeException e) {
+            // e.g. a concurrent request took one of the emails, write one by one to tell who failed
+            for (PendingWrite create : creates) {
+                create.employee().setId(0);
+                create.employee().setVersion(0);
+                try {
+                    create.result().complete(super.saveEmployee(create.employee()));
+                } catch (RuntimeException failure) {
+                    fail(create, failure);
+                }
+            }
+            return;
+        }
+        for (PendingWrite create : creates) {
+            if (create.employee().getId() != 0) {
+                create.result().complete(create.employee());
+            } else {
+                fail(create, new ResourceAlreadyExistsException(
+                        "Employee already exists with given email: " + create.employee().getEmail()));
+            }
+        }
+    }
+
+    private void writeUpdates(List<PendingWrite> updates) {
+        List<Employee> updatedEmployees;
+        try {
+            updatedEmployees = super.updateEmployees(updates.stream().map(PendingWrite::employee).toList());
+        } catch (RuntimeException e) {
+            // e.g. a stale version or a taken email, retry one by one so only the failing update is lost
+            for (PendingWrite update : updates) {
+                try {
+                    update.result().complete(super.updateEmployee(update.employee()));
+                } catch (RuntimeException failure) {
+                    fail(update, failure);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            updates.get(i).result().complete(updatedEmployees.get(i));
+        }
+    }
+
+    private void fail(PendingWrite write, RuntimeException failure) {
+        if (acknowledgement == Acknowledgement.QUEUED && !write.isCreate()) {
+            log.warn("Write-behind update of employee {} failed: {}", write.id(), failure.toString());
+        }
+        write.result().completeExceptionally(failure);
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // employee is null for a delete, id is 0 for a create
+    private record PendingWrite(long id, Employee employee, boolean isCreate, CompletableFuture<Object> result) {
+
+        static PendingWrite create(Employee employee) {
+            return new PendingWrite(0, employee, true, new CompletableFuture<>());
+        }
+
+        static PendingWrite update(Employee employee) {
+            return new PendingWrite(employee.getId(), employee, false, new CompletableFuture<>());
+        }
+
+        static PendingWrite delete(long id) {
+            return new PendingWrite(id, null, false, new CompletableFuture<>());
+        }
+
+        // a copy of the update as it reads once written, optimistic locking increments the version
+        Employee asWritten() {
+            return employee.toBuilder().version(employee.getVersion() + 1).build();
+        }
+
+        // only updates replace each other, only under QUEUED where no caller waits for its own outcome, and only
+        // when made from the same version or from what getEmployeeById returned for the queued one
+        boolean canReplace(PendingWrite queued, Acknowledgement acknowledgement) {
+            if (acknowledgement != Acknowledgement.QUEUED || employee == null || queued.employee() == null) {
+                return false;
+            }
+            long queuedVersion = queued.employee().getVersion();
+            return employee.getVersion() == queuedVersion || employee.getVersion() == queuedVersion + 1;
+        }
+
+        // the replacing update is written with the base version of the one it replaces
+        void rebaseOn(PendingWrite replaced) {
+            employee.setVersion(replaced.employee().getVersion());
+        }
+
+        // this update was replaced while queued, it is done when its replacement is written
+        void completeWith(PendingWrite replacement) {
+            replacement.result().whenComplete((replacementResult, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(replacementResult);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.javaguides.springboot.sharding;
+
+import net.javaguides.springboot.model.Employee;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// the pooled employees_seq generator. With sharding the id also carries the bucket of the email the employee is
+// created with, see EmployeeShards, without it ids are the plain sequence values
+public class EmployeeIdGenerator extends SequenceStyleGenerator {
+
+    // Hibernate property, set by ShardingConfig
+    public static final String SHARDED_SETTING = "net.javaguides.springboot.sharding.enabled";
+
+    private boolean sharded;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        super.configure(type, parameters, serviceRegistry);
+        Object setting = serviceRegistry.getService(ConfigurationService.class).getSettings().get(SHARDED_SETTING);
+        sharded = setting != null && Boolean.parseBoolean(setting.toString());
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        long sequenceValue = ((Number) super.generate(session, object)).longValue();
+        if (!sharded) {
+            return sequenceValue;
+        }
+        return sequenceValue * EmployeeShards.BUCKETS + EmployeeShards.bucketOfEmail(((Employee) object).getEmail());
+    }
+}
@@ -0,0 +1,110 @@
+package net.javaguides.springboot.sharding;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Where an employee lives when employees are sharded. A new employee gets the bucket of its email and keeps it in
+ * its id (id = sequence value * BUCKETS + bucket, see EmployeeIdGenerator), so both lookups by id and by email
+ * know the bucket without asking any database. Buckets are spread over the shards by a consistent hash ring:
+ * adding a shard only moves the buckets the new shard takes over, see ShardRebalancer.
+ *
+ * Shards are numbered by their position in employee.sharding.urls, new shards are appended.
+ */
+public class EmployeeShards {
+
+    // part of every id, can never change once employees have been created
+    public static final int BUCKETS = 256;
+
+    private static final int VIRTUAL_NODES = 64;
+
+    // keeps bucket points apart from the (shard, node) points of the ring
+    private static final long BUCKET_SALT = 0x9E3779B97F4A7C15L;
+
+    private final int shardCount;
+
+    private final int[] owners = new int[BUCKETS];
+
+    // shard of the work running on this thread, ShardRoutingDataSource hands out its connections
+    private final ThreadLocal<Integer> currentShard = new ThreadLocal<>();
+
+    public EmployeeShards(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+        NavigableMap<Long, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(mix(((long) shard << 32) | node), shard);
+            }
+        }
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            Map.Entry<Long, Integer> owner = ring.ceilingEntry(mix(bucket ^ BUCKET_SALT));
+            owners[bucket] = (owner != null ? owner : ring.firstEntry()).getValue();
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(long employeeId) {
+        return owners[bucketOf(employeeId)];
+    }
+
+    public int shardOfEmail(String email) {
+        return owners[bucketOfEmail(email)];
+    }
+
+    public int ownerOfBucket(int bucket) {
+        return owners[bucket];
+    }
+
+    public static int bucketOf(long employeeId) {
+        return (int) Math.floorMod(employeeId, (long) BUCKETS);
+    }
+
+    // an employee without email is rejected by the database, whichever shard it is sent to
+    public static int bucketOfEmail(String email) {
+        if (email == null) {
+            return 0;
+        }
+        return (int) Math.floorMod(mix(Employee.normalizeEmail(email).hashCode()), (long) BUCKETS);
+    }
+
+    // runs work with every connection taken on this thread coming from the given shard
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = currentShard.get();
+        currentShard.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                currentShard.remove();
+            } else {
+                currentShard.set(previous);
+            }
+        }
+    }
+
+    // work that was not routed, such as schema management at startup, runs on shard 0
+    int currentShard() {
+        Integer shard = currentShard.get();
+        return shard == null ? 0 : shard;
+    }
+
+    // murmur3 finalizer, String.hashCode alone leaves the low bits poorly mixed
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
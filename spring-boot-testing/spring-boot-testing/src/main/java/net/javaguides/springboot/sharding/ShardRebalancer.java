@@ -0,0 +1,130 @@
+package net.javaguides.springboot.sharding;
+
+import net.javaguides.springboot.model.TableVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Moves employees to the shard that owns their bucket, run it after appending a shard to employee.sharding.urls.
+ * With employee.sharding.rebalance-on-startup it runs while the application starts, before requests are served:
+ * until a bucket's rows have moved, lookups on the new owner do not find them.
+ *
+ * Rows are moved in batches. The copy on the owner replaces whatever an interrupted run left there and the rows are
+ * only deleted from their old shard after it committed, so a failed run can simply be repeated.
+ * Outbox rows stay where they were written. Both shards count the move in their employees table version: a listing
+ * read from the shards while a batch moves may miss or repeat it, its summed version must not be the one after.
+ */
+public class ShardRebalancer implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    // every column of Employee, rows keep their id, version and timestamps
+    private static final String COLUMNS = "id, first_name, last_name, email, version, created_at, updated_at";
+
+    private static final String INCREMENT_TABLE_VERSION =
+            "update table_versions set version = version + 1 where name = '" + TableVersion.EMPLOYEES + "'";
+
+    private final ShardRoutingDataSource dataSource;
+
+    private final EmployeeShards employeeShards;
+
+    private final boolean rebalanceOnStartup;
+
+    public ShardRebalancer(ShardRoutingDataSource dataSource, EmployeeShards employeeShards, boolean rebalanceOnStartup) {
+        this.dataSource = dataSource;
+        this.employeeShards = employeeShards;
+        this.rebalanceOnStartup = rebalanceOnStartup;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (rebalanceOnStartup) {
+            rebalance();
+        }
+    }
+
+    // returns how many employees were moved
+    public int rebalance() {
+        long started = System.nanoTime();
+        int moved = 0;
+        for (int shard = 0; shard < employeeShards.shardCount(); shard++) {
+            moved += moveForeignRows(shard);
+        }
+        log.info("Moved {} employees to the shards owning them in {} ms", moved, (System.nanoTime() - started) / 1_000_000);
+        return moved;
+    }
+
+    private int moveForeignRows(int source) {
+        int owner = source;
+        String foreignBuckets = IntStream.range(0, EmployeeShards.BUCKETS)
+                .filter(bucket -> employeeShards.ownerOfBucket(bucket) != owner)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(", "));
+        if (foreignBuckets.isEmpty()) {
+            return 0;
+        }
+        JdbcTemplate sourceJdbc = new JdbcTemplate(dataSource.shard(source));
+        sourceJdbc.setMaxRows(BATCH_SIZE);
+        String select = "select " + COLUMNS + " from employees where mod(id, " + EmployeeShards.BUCKETS + ") in ("
+                + foreignBuckets + ") order by id";
+
+        int moved = 0;
+        List<Object[]> rows;
+        // every batch is deleted from the source once copied, so the same query returns the next one
+        while (!(rows = sourceJdbc.query(select, (resultSet, rowNumber) -> {
+            Object[] row = new Object[7];
+            for (int column = 0; column < row.length; column++) {
+                row[column] = resultSet.getObject(column + 1);
+            }
+            return row;
+        })).isEmpty()) {
+            Map<Integer, List<Object[]>> rowsByTarget = new TreeMap<>();
+            for (Object[] row : rows) {
+                int target = employeeShards.shardOf(((Number) row[0]).longValue());
+                rowsByTarget.computeIfAbsent(target, shard -> new ArrayList<>()).add(row);
+            }
+            rowsByTarget.forEach(this::copy);
+            List<Object[]> copied = rows;
+            inTransaction(source, status -> {
+                sourceJdbc.update("delete from employees where id in (" + ids(copied) + ")");
+                sourceJdbc.update(INCREMENT_TABLE_VERSION);
+            });
+            moved += rows.size();
+        }
+        return moved;
+    }
+
+    private void copy(int target, List<Object[]> rows) {
+        JdbcTemplate targetJdbc = new JdbcTemplate(dataSource.shard(target));
+        inTransaction(target, status -> {
+            targetJdbc.update("delete from employees where id in (" + ids(rows) + ")");
+            targetJdbc.batchUpdate("insert into employees (" + COLUMNS + ") values ("
+                    + String.join(", ", Collections.nCopies(7, "?")) + ")", rows);
+            targetJdbc.update(INCREMENT_TABLE_VERSION);
+        });
+    }
+
+    private void inTransaction(int shard, Consumer<TransactionStatus> work) {
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource.shard(shard))).executeWithoutResult(work);
+    }
+
+    private static String ids(List<Object[]> rows) {
+        return rows.stream().map(row -> row[0].toString()).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,53 @@
+package net.javaguides.springboot.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// hands out connections of the shard EmployeeShards.onShard selected for the current thread. The shard is chosen
+// before the transaction starts, so a transaction, and the persistence context with it, never spans two shards
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final List<DataSource> shards;
+
+    private final EmployeeShards employeeShards;
+
+    public ShardRoutingDataSource(List<DataSource> shards, EmployeeShards employeeShards) {
+        this.shards = List.copyOf(shards);
+        this.employeeShards = employeeShards;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return employeeShards.currentShard();
+    }
+
+    // closes the pools, the routing DataSource owns them
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not close " + shard, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.javaguides.springboot.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.Action;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Hibernate applies spring.jpa.hibernate.ddl-auto through a connection taken without a shard, which is shard 0.
+ * This applies the same schema action to every other shard while the SessionFactory is built.
+ *
+ * Where it creates the schema, it also moves each shard's employees_seq into a range of its own: all shards share
+ * one pooled id generator, whichever shard handed out a block, its ids must not repeat on another shard.
+ * Databases whose schema is managed outside Hibernate need the same disjoint ranges.
+ */
+public class ShardSchemaIntegrator implements Integrator {
+
+    // sequence values per shard, times BUCKETS the ids of the first 8192 shards stay below 2^53, exact in JavaScript
+    static final long SEQUENCE_RANGE = 1L << 32;
+
+    private static final EnumSet<Action> CREATING_ACTIONS = EnumSet.of(Action.CREATE, Action.CREATE_DROP, Action.CREATE_ONLY);
+
+    private final ShardRoutingDataSource dataSource;
+
+    private final EmployeeShards employeeShards;
+
+    public ShardSchemaIntegrator(ShardRoutingDataSource dataSource, EmployeeShards employeeShards) {
+        this.dataSource = dataSource;
+        this.employeeShards = employeeShards;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        Map<String, Object> settings = bootstrapContext.getServiceRegistry().getService(ConfigurationService.class).getSettings();
+        Action action = Action.interpretHbm2ddlSetting(settings.get(AvailableSettings.HBM2DDL_AUTO));
+        for (int shard = 1; shard < employeeShards.shardCount(); shard++) {
+            // in-memory shards go away with the application, the drop of create-drop is left to shard 0
+            employeeShards.onShard(shard, () -> {
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings, dropAction -> {});
+                return null;
+            });
+            if (CREATING_ACTIONS.contains(action)) {
+                restartEmployeeSequence(shard);
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    private void restartEmployeeSequence(int shard) {
+        try (Connection connection = dataSource.shard(shard).getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence employees_seq restart with " + (shard * SEQUENCE_RANGE + 1));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not move employees_seq of shard " + shard + " into its range", e);
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- run by Hibernate after it created the schema, on every shard
+insert into table_versions (name, version) values ('employees', 0);
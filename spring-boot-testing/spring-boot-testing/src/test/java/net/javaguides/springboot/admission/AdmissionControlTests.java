@@ -0,0 +1,122 @@
+package net.javaguides.springboot.admission;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AdmissionControlTests {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // JUnit test for the token bucket burst and refill
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for the token bucket burst and refill")
+    public void givenTokenBucket_whenBurstUsedUp_thenRefilledAtRate() {
+        // given - preconditions or setup
+        TokenBucket tokenBucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+
+        // when - actions or the behaviour that we are going test
+        long[] burst = {tokenBucket.tryAcquire(now), tokenBucket.tryAcquire(now), tokenBucket.tryAcquire(now)};
+        long waitAfterBurst = tokenBucket.tryAcquire(now);
+        long afterRefill = tokenBucket.tryAcquire(now + 100 * MILLISECOND);
+
+        // then - verify the output
+        assertThat(burst).containsOnly(0L);
+        assertThat(waitAfterBurst).isEqualTo(100 * MILLISECOND);
+        assertThat(afterRefill).isZero();
+        assertThat(tokenBucket.tryAcquire(now + 100 * MILLISECOND)).isPositive();
+    }
+
+    // JUnit test for the in-flight limit
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for the in-flight limit")
+    public void givenLimitReached_whenTryAcquire_thenRejectedUntilReleased() {
+        // given - preconditions or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5);
+
+        // when - actions or the behaviour that we are going test
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+        limiter.releaseWithoutSample();
+
+        // then - verify the output
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    // JUnit test for adapting the limit to latency
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for adapting the limit to latency")
+    public void givenSaturatedLimiter_whenLatencyRises_thenLimitShrinks() {
+        // given - preconditions or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 1.5);
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter);
+            limiter.release(10 * MILLISECOND);
+        }
+        int steadyLimit = limiter.getLimit();
+
+        // when - actions or the behaviour that we are going test
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter);
+            limiter.release(100 * MILLISECOND);
+        }
+
+        // then - verify the output
+        assertThat(steadyLimit).isGreaterThan(20);
+        assertThat(limiter.getLimit()).isLessThan(steadyLimit / 2);
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(4);
+    }
+
+    // keeps the limiter at its limit, so every release is a sample of a loaded system
+    private static void saturate(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+        }
+    }
+
+    // JUnit test for the concurrency slot of async requests
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for the concurrency slot of async requests")
+    public void givenAsyncRequests_whenFirstDispatchReturns_thenOnlyStreamsKeepTheirSlot() throws Exception {
+        // given - preconditions or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, 1.5);
+        AdmissionControlFilter filter = new AdmissionControlFilter(Caffeine.newBuilder().build(),
+                client -> new TokenBucket(1000, 1000), new TokenBucket(1000, 1000), limiter, "", Set.of(),
+                new SimpleMeterRegistry());
+        FilterChain goesAsync = (request, response) -> request.startAsync();
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/api/employees");
+        stream.setAsyncSupported(true);
+        MockHttpServletRequest longPoll = new MockHttpServletRequest("GET", "/api/employees/changes");
+        longPoll.setAsyncSupported(true);
+
+        // when - actions or the behaviour that we are going test
+        filter.doFilter(stream, new MockHttpServletResponse(), goesAsync);
+        int inFlightWhileStreaming = limiter.getInFlight();
+        filter.doFilter(longPoll, new MockHttpServletResponse(), goesAsync);
+        int inFlightWhilePolling = limiter.getInFlight();
+        stream.getAsyncContext().complete();
+
+        // then - verify the output
+        assertThat(inFlightWhileStreaming).isEqualTo(1);
+        assertThat(inFlightWhilePolling).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package net.javaguides.springboot.config;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// buckets that hardly refill during the test: every client has 2 requests, all clients together 5.
+// Clients a to e are known by key, all other requests come from the address of MockMvc
+@SpringBootTest(properties = {
+        "employee.admission.enabled=true",
+        "employee.admission.client-header=X-Client-Id",
+        "employee.admission.client-keys=a,b,c,d,e",
+        "employee.admission.client-rate=0.001",
+        "employee.admission.client-burst=2",
+        "employee.admission.global-rate=0.001",
+        "employee.admission.global-burst=5"})
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AdmissionControlConfigTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // JUnit test for the per-client rate limit
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for the per-client rate limit")
+    public void givenClientOverItsRate_whenGetEmployees_thenTooManyRequestsForThatClientOnly() throws Exception {
+        // given - preconditions or setup
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "a")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "a")).andExpect(status().isOk());
+
+        // when - actions or the behaviour that we are going test
+
+        // then - verify the output
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "b")).andExpect(status().isOk());
+    }
+
+    // JUnit test for the global rate limit
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for the global rate limit")
+    public void givenAllClientsOverGlobalRate_whenGetEmployees_thenServiceUnavailable() throws Exception {
+        // given - preconditions or setup
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "c")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "d")).andExpect(status().isOk());
+
+        // when - actions or the behaviour that we are going test
+
+        // then - verify the output
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "e"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    // JUnit test for client keys that are not configured
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for client keys that are not configured")
+    public void givenUnknownClientKeys_whenGetEmployees_thenShareTheBucketOfTheRemoteAddress() throws Exception {
+        // given - preconditions or setup: the global bucket is empty, requests only use up their client bucket
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "x")).andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "y")).andExpect(status().isServiceUnavailable());
+
+        // when - actions or the behaviour that we are going test
+
+        // then - verify the output
+        mockMvc.perform(get("/api/employees").header("X-Client-Id", "z"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,123 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BinaryFormatConfigTests {
+
+    private static final int EMPLOYEES = 50;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setup() {
+        if (employeeService.getAllEmployees().isEmpty()) {
+            for (int i = 0; i < EMPLOYEES; i++) {
+                employeeService.saveEmployee(Employee.builder().firstName("Ramesh").lastName("Fadatare")
+                        .email("ramesh.binary" + i + "@gmail.com").build());
+            }
+        }
+    }
+
+    // JUnit test for CBOR and Smile content negotiation
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for CBOR and Smile content negotiation")
+    public void givenBinaryAccept_whenGetAllEmployees_thenSameEmployeesInSmallerBody() throws IOException {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+        ResponseEntity<byte[]> json = get(MediaType.APPLICATION_JSON, null);
+        ResponseEntity<byte[]> cbor = get(MediaType.APPLICATION_CBOR, null);
+        ResponseEntity<byte[]> smile = get(MediaType.parseMediaType("application/x-jackson-smile"), null);
+
+        // then - verify the output
+        List<EmployeeView> fromJson = List.of(objectMapper.readValue(json.getBody(), EmployeeView[].class));
+        List<EmployeeView> fromCbor = List.of(new CBORMapper().findAndRegisterModules().readValue(cbor.getBody(), EmployeeView[].class));
+        List<EmployeeView> fromSmile = List.of(new SmileMapper().findAndRegisterModules().readValue(smile.getBody(), EmployeeView[].class));
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(fromJson).hasSize(EMPLOYEES);
+        assertThat(fromCbor).isEqualTo(fromJson);
+        assertThat(fromSmile).isEqualTo(fromJson);
+        assertThat(cbor.getBody().length).isLessThan(json.getBody().length);
+        assertThat(smile.getBody().length).isLessThan(json.getBody().length);
+    }
+
+    // JUnit test for the CBOR sequence stream
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for the CBOR sequence stream")
+    public void givenCborSeqAccept_whenStreamAllEmployees_thenOneCborItemPerEmployee() throws IOException {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+        ResponseEntity<byte[]> response = get(MediaType.parseMediaType("application/cbor-seq"), null);
+
+        // then - verify the output
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        try (MappingIterator<Employee> employees = new CBORMapper().findAndRegisterModules()
+                .readerFor(Employee.class).readValues(response.getBody())) {
+            assertThat(employees.readAll()).hasSize(EMPLOYEES)
+                    .allSatisfy(employee -> assertThat(employee.getEmail()).startsWith("ramesh.binary"));
+        }
+    }
+
+    // JUnit test for gzip response compression
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for gzip response compression")
+    public void givenAcceptEncodingGzip_whenGetAllEmployeesAsCbor_thenCompressedBody() throws IOException {
+        // given - preconditions or setup
+        byte[] uncompressed = get(MediaType.APPLICATION_CBOR, null).getBody();
+
+        // when - actions or the behaviour that we are going test
+        ResponseEntity<byte[]> response = get(MediaType.APPLICATION_CBOR, "gzip");
+
+        // then - verify the output
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(body.readAllBytes()).isEqualTo(uncompressed);
+        }
+        assertThat(response.getBody().length).isLessThan(uncompressed.length);
+    }
+
+    private ResponseEntity<byte[]> get(MediaType accept, String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(accept));
+        if (acceptEncoding != null) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return restTemplate.exchange("/api/employees", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
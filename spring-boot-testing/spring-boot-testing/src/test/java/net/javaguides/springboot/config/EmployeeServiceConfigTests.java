@@ -0,0 +1,86 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.exception.StaleVersionException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.WriteBehindEmployeeService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"employee.write-behind.enabled=true", "employee.write-behind.acknowledgement=durable"})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EmployeeServiceConfigTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    // JUnit test for write-behind writes against the database
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for write-behind writes against the database")
+    public void givenWriteBehindEnabled_whenConcurrentWrites_thenBatchesAreCommitted() {
+        // given - preconditions or setup
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh.wb@gmail.com").build(),
+                Employee.builder().firstName("Tony").lastName("Stark").email("tony.wb@gmail.com").build(),
+                Employee.builder().firstName("Bruce").lastName("Wayne").email("bruce.wb@gmail.com").build());
+
+        // when - actions or the behaviour that we are going test
+        List<Employee> created = employees.stream()
+                .map(employee -> CompletableFuture.supplyAsync(() -> employeeService.saveEmployee(employee)))
+                .toList().stream().map(CompletableFuture::join).toList();
+        Employee updated = employeeService.updateEmployee(created.get(0).toBuilder().firstName("Ram").build());
+        boolean deleted = employeeService.deleteEmployee(created.get(1).getId());
+        Employee staleUpdate = created.get(0).toBuilder().firstName("Rama").build();
+
+        // then - verify the output
+        assertThat(employeeService).isInstanceOf(WriteBehindEmployeeService.class);
+        assertThat(created).allSatisfy(employee -> assertThat(employee.getId()).isPositive());
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(deleted).isTrue();
+        assertThatThrownBy(() -> employeeService.updateEmployee(staleUpdate)).isInstanceOf(StaleVersionException.class);
+        assertThat(employeeRepository.findById(created.get(0).getId())).get()
+                .extracting(Employee::getFirstName).isEqualTo("Ram");
+        assertThat(employeeRepository.existsById(created.get(1).getId())).isFalse();
+        assertThat(employeeRepository.existsById(created.get(2).getId())).isTrue();
+    }
+
+    // JUnit test for the listing version after writes that change nothing
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for the listing version after writes that change nothing")
+    public void givenNoOpWrites_whenGetEmployeeListing_thenVersionUnchanged() {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstName("Clark").lastName("Kent")
+                .email("clark.wb@gmail.com").build());
+        long versionBefore = employeeService.getEmployeeListing(version -> true).version();
+
+        // when - actions or the behaviour that we are going test
+        boolean deletedMissing = employeeService.deleteEmployee(Long.MAX_VALUE);
+        int deletedNone = employeeService.deleteEmployees(List.of()).getDeleted();
+        int deletedOfDomain = employeeService.deleteEmployeesByEmailDomain("nowhere.example").getDeleted();
+        Employee unchanged = employeeService.updateEmployee(employee.toBuilder().build());
+        long versionAfterNoOps = employeeService.getEmployeeListing(version -> true).version();
+        boolean deleted = employeeService.deleteEmployee(employee.getId());
+
+        // then - verify the output
+        assertThat(deletedMissing).isFalse();
+        assertThat(deletedNone).isZero();
+        assertThat(deletedOfDomain).isZero();
+        assertThat(unchanged.getVersion()).isEqualTo(employee.getVersion());
+        assertThat(versionAfterNoOps).isEqualTo(versionBefore);
+        assertThat(deleted).isTrue();
+        assertThat(employeeService.getEmployeeListing(version -> true).version()).isEqualTo(versionBefore + 1);
+    }
+}
@@ -0,0 +1,69 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class MetricsConfigTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // JUnit test for the per-request statement count
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for the per-request statement count")
+    public void givenUncachedSearch_whenSearchEmployeesByName_thenRecordOneStatement() {
+        // given - preconditions or setup
+        Employee employee = Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh.metrics@gmail.com").build();
+        restTemplate.postForEntity("/api/employees", employee, Employee.class);
+
+        // when - actions or the behaviour that we are going test
+        restTemplate.getForEntity("/api/employees/search?lastName=Fad", String.class);
+
+        // then - verify the output
+        DistributionSummary statements = meterRegistry.get("hibernate.statements.per.request")
+                .tags("method", "GET", "uri", "/api/employees/search")
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+
+    // JUnit test for the prometheus endpoint
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for the prometheus endpoint")
+    public void givenServiceCalls_whenScrapePrometheus_thenExposeTimersGaugesAndStatementCounts() {
+        // given - preconditions or setup
+        restTemplate.getForEntity("/api/employees/search?lastName=Fada", String.class);
+
+        // when - actions or the behaviour that we are going test
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // then - verify the output
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("employee_service_seconds{class=\"net.javaguides.springboot.service.impl.EmployeeServiceImpl\"")
+                .contains("method=\"searchEmployeesByName\",quantile=\"0.999\"")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .contains("method=\"findByLastNameStartingWithAndFirstNameStartingWith\"")
+                .contains("hikaricp_connections_pending")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_statements_per_request_count{method=\"GET\",uri=\"/api/employees/search\"");
+    }
+}
@@ -0,0 +1,212 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.datasource.ReadWriteRoutingDataSource;
+import net.javaguides.springboot.datasource.ReadYourWrites;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the replicas are H2 instances of their own, replicate() copies the primary into them the way replication would.
+// The caches are off so every read reaches a database
+@SpringBootTest(properties = {
+        "employee.replicas.enabled=true",
+        "spring.datasource.url=" + ReadReplicaConfigTests.PRIMARY_URL,
+        "employee.replicas.urls=" + ReadReplicaConfigTests.REPLICA_0_URL + "," + ReadReplicaConfigTests.REPLICA_1_URL,
+        "employee.l2-cache.enabled=false",
+        "employee.search.rebuild-on-startup=false"})
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReadReplicaConfigTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_0_URL = "jdbc:h2:mem:routing-replica-0;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_1_URL = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeServiceImpl employeeService;
+
+    @Autowired
+    private EmployeeService cachingEmployeeService;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        replicate();
+        readYourWrites.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        readYourWrites.clear();
+    }
+
+    // JUnit test for reads from the replicas
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for reads from the replicas")
+    public void givenWriteNotReplicatedYet_whenReadOnlyQuery_thenServedByReplica() throws Exception {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh.replica@gmail.com").build());
+        readYourWrites.clear();
+
+        // when - actions or the behaviour that we are going test
+        boolean foundBeforeReplication = employeeService.getEmployeeById(employee.getId()).isPresent();
+        replicate();
+        boolean foundAfterReplication = employeeService.getEmployeeById(employee.getId()).isPresent();
+
+        // then - verify the output
+        assertThat(dataSource.unwrap(ReadWriteRoutingDataSource.class)).isNotNull();
+        assertThat(foundBeforeReplication).isFalse();
+        assertThat(foundAfterReplication).isTrue();
+    }
+
+    // JUnit test for read-your-writes on the writing thread
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for read-your-writes on the writing thread")
+    public void givenWriteCommitted_whenSameThreadReads_thenServedByPrimary() {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Tony").lastName("Stark").email("tony.replica@gmail.com").build());
+
+        // when - actions or the behaviour that we are going test
+        boolean foundByWriter = employeeService.getEmployeeById(employee.getId()).isPresent();
+        boolean foundByOtherThread = CompletableFuture
+                .supplyAsync(() -> employeeService.getEmployeeById(employee.getId()).isPresent()).join();
+
+        // then - verify the output
+        assertThat(foundByWriter).isTrue();
+        assertThat(foundByOtherThread).isFalse();
+    }
+
+    // JUnit test for spreading reads over the replicas
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for spreading reads over the replicas")
+    public void givenRowMissingOnOneReplica_whenReadRepeatedly_thenReplicasServeInTurn() throws Exception {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Bruce").lastName("Wayne").email("bruce.replica@gmail.com").build());
+        replicate();
+        readYourWrites.clear();
+        try (Connection replica = DriverManager.getConnection(REPLICA_1_URL, "sa", "");
+             PreparedStatement delete = replica.prepareStatement("delete from employees where id = ?")) {
+            delete.setLong(1, employee.getId());
+            delete.executeUpdate();
+        }
+
+        // when - actions or the behaviour that we are going test
+        long found = IntStream.range(0, 4)
+                .filter(i -> employeeService.getEmployeeById(employee.getId()).isPresent())
+                .count();
+
+        // then - verify the output
+        assertThat(found).isEqualTo(2);
+    }
+
+    // JUnit test for read-your-writes across requests
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for read-your-writes across requests")
+    public void givenCookieFromWrite_whenSearchEmployees_thenServedByPrimary() throws Exception {
+        // given - preconditions or setup
+        Employee employee = Employee.builder().firstName("John").lastName("Cena").email("john.replica@gmail.com").build();
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWrites.COOKIE_NAME))
+                .andReturn();
+        Cookie primaryUntil = created.getResponse().getCookie(ReadYourWrites.COOKIE_NAME);
+
+        // when - actions or the behaviour that we are going test
+        String withoutCookie = mockMvc.perform(get("/api/employees/search").param("lastName", "Cena"))
+                .andReturn().getResponse().getContentAsString();
+        String withCookie = mockMvc.perform(get("/api/employees/search").param("lastName", "Cena").cookie(primaryUntil))
+                .andReturn().getResponse().getContentAsString();
+
+        // then - verify the output
+        assertThat(withoutCookie).doesNotContain(employee.getEmail());
+        assertThat(withCookie).contains(employee.getEmail());
+    }
+
+    // JUnit test for id cache loads while the replicas lag behind
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for id cache loads while the replicas lag behind")
+    public void givenUpdateNotReplicatedYet_whenCachedGetEmployeeById_thenLoadFromPrimary() throws Exception {
+        // given - preconditions or setup: another thread updates, this one has never written
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Steve").lastName("Rogers").email("steve.replica@gmail.com").build());
+        replicate();
+        CompletableFuture.runAsync(() -> {
+            Employee toUpdate = cachingEmployeeService.getEmployeeById(employee.getId()).get();
+            toUpdate.setFirstName("Captain");
+            cachingEmployeeService.updateEmployee(toUpdate);
+        }).join();
+        readYourWrites.clear();
+
+        // when - actions or the behaviour that we are going test
+        Employee loaded = cachingEmployeeService.getEmployeeById(employee.getId()).get();
+        Employee cached = cachingEmployeeService.getEmployeeById(employee.getId()).get();
+
+        // then - verify the output
+        assertThat(employeeService.getEmployeeById(employee.getId()).get().getFirstName()).isEqualTo("Steve");
+        assertThat(loaded.getFirstName()).isEqualTo("Captain");
+        assertThat(cached.getFirstName()).isEqualTo("Captain");
+    }
+
+    private static void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet resultSet = statement.executeQuery("SCRIPT")) {
+            while (resultSet.next()) {
+                script.add(resultSet.getString(1));
+            }
+        }
+        for (String replicaUrl : List.of(REPLICA_0_URL, REPLICA_1_URL)) {
+            try (Connection replica = DriverManager.getConnection(replicaUrl, "sa", "");
+                 Statement statement = replica.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                for (String sql : script) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+}
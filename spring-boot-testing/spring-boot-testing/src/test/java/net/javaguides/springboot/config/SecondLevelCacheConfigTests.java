@@ -0,0 +1,122 @@
+package net.javaguides.springboot.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SecondLevelCacheConfigTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        employeeRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // JUnit test for the entity cache
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for the entity cache")
+    public void givenCachedEmployee_whenFindById_thenNoStatement() {
+        // given - preconditions or setup
+        Employee employee = employeeRepository.save(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+        statistics.clear();
+
+        // when - actions or the behaviour that we are going test
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findById(employee.getId());
+
+        // then - verify the output
+        assertThat(entityManagerFactory.getCache().contains(Employee.class, employee.getId())).isTrue();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    // JUnit test for entity cache invalidation on save and deleteById
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for entity cache invalidation on save and deleteById")
+    public void givenCachedEmployee_whenSaveOrDeleteById_thenFindByIdSeesTheChange() {
+        // given - preconditions or setup
+        Employee employee = employeeRepository.save(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+        Employee cachedEmployee = employeeRepository.findById(employee.getId()).get();
+
+        // when - actions or the behaviour that we are going test
+        cachedEmployee.setFirstName("Ram");
+        employeeRepository.save(cachedEmployee);
+
+        // then - verify the output
+        assertThat(employeeRepository.findById(employee.getId()).get().getFirstName()).isEqualTo("Ram");
+
+        // when - actions or the behaviour that we are going test
+        employeeRepository.deleteById(employee.getId());
+
+        // then - verify the output: READ_WRITE leaves a lock entry behind that readers treat as a miss
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    // JUnit test for query cache hits and invalidation
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for query cache hits and invalidation")
+    public void givenCachedLookups_whenEmployeeChanges_thenQueryCacheIsInvalidated() {
+        // given - preconditions or setup
+        Employee employee = employeeRepository.save(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+        employeeRepository.findByEmail("ramesh@gmail.com");
+        findByName("Fadatare", "Ramesh");
+        statistics.clear();
+
+        // when - actions or the behaviour that we are going test
+        employeeRepository.findByEmail("ramesh@gmail.com");
+        findByName("Fadatare", "Ramesh");
+
+        // then - verify the output
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // when - actions or the behaviour that we are going test
+        employee.setEmail("ram@gmail.com");
+        employee.setFirstName("Ram");
+        employeeRepository.save(employee);
+
+        // then - verify the output
+        assertThat(employeeRepository.findByEmail("ramesh@gmail.com")).isEmpty();
+        assertThat(employeeRepository.findByEmail("ram@gmail.com")).isPresent();
+        assertThat(findByName("Fadatare", "Ramesh")).isEmpty();
+
+        // when - actions or the behaviour that we are going test
+        employeeRepository.deleteById(employee.getId());
+
+        // then - verify the output
+        assertThat(employeeRepository.findByEmail("ram@gmail.com")).isEmpty();
+    }
+
+    private Slice<Employee> findByName(String lastNamePrefix, String firstNamePrefix) {
+        return employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith(lastNamePrefix, firstNamePrefix,
+                PageRequest.of(0, 20, Sort.by("lastName", "firstName")));
+    }
+}
@@ -0,0 +1,213 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.FeatureUnavailableException;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.ShardKeyChangeException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.outbox.EmployeeChangeFeed;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.sharding.EmployeeShards;
+import net.javaguides.springboot.sharding.ShardRebalancer;
+import net.javaguides.springboot.sharding.ShardRoutingDataSource;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// three H2 instances of their own, the tests look into each of them over JDBC
+@SpringBootTest(properties = {
+        "employee.sharding.enabled=true",
+        "employee.sharding.urls=" + ShardingConfigTests.SHARD_URLS,
+        "employee.l2-cache.enabled=false",
+        "employee.search.rebuild-on-startup=false"})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ShardingConfigTests {
+
+    static final String SHARD_URLS = "jdbc:h2:mem:sharding-0;DB_CLOSE_DELAY=-1,"
+            + "jdbc:h2:mem:sharding-1;DB_CLOSE_DELAY=-1,"
+            + "jdbc:h2:mem:sharding-2;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @Autowired
+    private AsyncCache<Long, Employee> employeeCache;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        for (int shard = 0; shard < employeeShards.shardCount(); shard++) {
+            shard(shard).update("delete from employees");
+        }
+        employeeCache.synchronous().invalidateAll();
+    }
+
+    // JUnit test for routing saves by email
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for routing saves by email")
+    public void givenEmployees_whenSaveEmployee_thenEachStoredOnTheShardOfItsEmail() throws SQLException {
+        // given - preconditions or setup
+        List<Employee> employees = IntStream.range(0, 12)
+                .mapToObj(i -> Employee.builder().firstName("Ramesh").lastName("Fadatare")
+                        .email("ramesh" + i + "@gmail.com").build())
+                .toList();
+
+        // when - actions or the behaviour that we are going test
+        List<Employee> savedEmployees = employees.stream().map(employeeService::saveEmployee).toList();
+
+        // then - verify the output
+        for (Employee employee : savedEmployees) {
+            int owner = employeeShards.shardOfEmail(employee.getEmail());
+            assertThat(EmployeeShards.bucketOf(employee.getId())).isEqualTo(EmployeeShards.bucketOfEmail(employee.getEmail()));
+            for (int shard = 0; shard < employeeShards.shardCount(); shard++) {
+                assertThat(shard(shard).queryForObject("select count(*) from employees where id = ?", Integer.class,
+                        employee.getId())).isEqualTo(shard == owner ? 1 : 0);
+            }
+            assertThat(employeeService.getEmployeeById(employee.getId())).isPresent();
+        }
+        assertThat(IntStream.range(0, employeeShards.shardCount())
+                .filter(shard -> savedEmployees.stream().anyMatch(e -> employeeShards.shardOf(e.getId()) == shard))
+                .count()).isGreaterThan(1);
+    }
+
+    // JUnit test for listings merged from all shards
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for listings merged from all shards")
+    public void givenEmployeesOnAllShards_whenListed_thenMergedInOrder() {
+        // given - preconditions or setup
+        long versionBefore = employeeService.getEmployeeListing(version -> true).version();
+        List<String> lastNames = List.of("Fadatare", "Cena", "Lewis", "Fadatare", "Brown", "Carter", "Fox", "Adams");
+        for (int i = 0; i < lastNames.size(); i++) {
+            employeeService.saveEmployee(Employee.builder().firstName("Name" + i).lastName(lastNames.get(i))
+                    .email("merged" + i + "@gmail.com").build());
+        }
+
+        // when - actions or the behaviour that we are going test
+        List<EmployeeView> allEmployees = employeeService.getAllEmployees();
+        EmployeeListing listing = employeeService.getEmployeeListing(version -> false);
+        EmployeeListing unchanged = employeeService.getEmployeeListing(version -> version == listing.version());
+        Slice<EmployeeView> firstPage = employeeService.searchEmployeesByName("F", null, 0, 2);
+        Slice<EmployeeView> secondPage = employeeService.searchEmployeesByName("F", null, 1, 2);
+
+        // then - verify the output
+        assertThat(allEmployees).hasSize(lastNames.size());
+        assertThat(allEmployees).isSortedAccordingTo((a, b) -> Long.compare(a.id(), b.id()));
+        assertThat(listing.version()).isEqualTo(versionBefore + lastNames.size());
+        assertThat(listing.employees()).isEqualTo(allEmployees);
+        assertThat(unchanged.employees()).isNull();
+        assertThat(firstPage.getContent()).extracting(EmployeeView::firstName).containsExactly("Name0", "Name3");
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).extracting(EmployeeView::lastName).containsExactly("Fox");
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    // JUnit test for duplicate emails across shards
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for duplicate emails across shards")
+    public void givenSavedEmployee_whenSaveSameEmailInOtherCase_thenResourceAlreadyExists() {
+        // given - preconditions or setup
+        employeeService.saveEmployee(Employee.builder().firstName("Ramesh").lastName("Fadatare")
+                .email("ramesh@gmail.com").build());
+
+        // when - actions or the behaviour that we are going test
+        Employee duplicate = Employee.builder().firstName("Tony").lastName("Stark").email(" Ramesh@GMAIL.com").build();
+
+        // then - verify the output
+        assertThatThrownBy(() -> employeeService.saveEmployee(duplicate))
+                .isInstanceOf(ResourceAlreadyExistsException.class);
+    }
+
+    // JUnit test for changing the email to another shard bucket
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for changing the email to another shard bucket")
+    public void givenSavedEmployee_whenEmailMovesToOtherBucket_thenShardKeyChangeRejected() {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstName("Ramesh").lastName("Fadatare")
+                .email("ramesh@gmail.com").build());
+        String otherEmail = IntStream.range(0, 1000)
+                .mapToObj(i -> "ramesh" + i + "@gmail.com")
+                .filter(email -> EmployeeShards.bucketOfEmail(email) != EmployeeShards.bucketOf(employee.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        // when - actions or the behaviour that we are going test
+        employee.setEmail(otherEmail);
+
+        // then - verify the output
+        assertThatThrownBy(() -> employeeService.updateEmployee(employee)).isInstanceOf(ShardKeyChangeException.class);
+        assertThat(employeeService.getEmployeeById(employee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("ramesh@gmail.com");
+    }
+
+    // JUnit test for moving employees to the shard owning their bucket
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for moving employees to the shard owning their bucket")
+    public void givenEmployeeOnWrongShard_whenRebalance_thenMovedToOwner() throws SQLException {
+        // given - preconditions or setup
+        int bucket = 7;
+        int owner = employeeShards.ownerOfBucket(bucket);
+        int wrongShard = (owner + 1) % employeeShards.shardCount();
+        long id = 1_000_000L * EmployeeShards.BUCKETS + bucket;
+        shard(wrongShard).update("insert into employees (id, first_name, last_name, email, version, created_at, updated_at) "
+                + "values (?, 'Tony', 'Stark', 'tony@gmail.com', 3, current_timestamp, current_timestamp)", id);
+        boolean foundBefore = employeeService.getEmployeeById(id).isPresent();
+        long versionBefore = employeeService.getEmployeeListing(version -> true).version();
+
+        // when - actions or the behaviour that we are going test
+        int moved = shardRebalancer.rebalance();
+
+        // then - verify the output
+        assertThat(foundBefore).isFalse();
+        assertThat(moved).isEqualTo(1);
+        assertThat(employeeService.getEmployeeListing(version -> true).version()).isEqualTo(versionBefore + 2);
+        assertThat(shard(wrongShard).queryForObject("select count(*) from employees", Integer.class)).isZero();
+        assertThat(employeeService.getEmployeeById(id)).get()
+                .extracting(Employee::getVersion).isEqualTo(3L);
+        assertThat(shardRebalancer.rebalance()).isZero();
+    }
+
+    // JUnit test for the change feed under sharding
+    @Test
+    @Order(6)
+    @DisplayName("JUnit test for the change feed under sharding")
+    public void givenSharding_whenReadChangeFeed_thenFeatureUnavailable() {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+
+        // then - verify the output
+        assertThatThrownBy(() -> employeeChangeFeed.read(0, 10)).isInstanceOf(FeatureUnavailableException.class);
+    }
+
+    private JdbcTemplate shard(int shard) throws SQLException {
+        return new JdbcTemplate(dataSource.unwrap(ShardRoutingDataSource.class).shard(shard));
+    }
+}
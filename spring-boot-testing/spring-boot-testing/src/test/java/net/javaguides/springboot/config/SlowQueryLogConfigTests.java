@@ -0,0 +1,71 @@
+package net.javaguides.springboot.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the second-level cache is off so the lookup below always reaches the database
+@SpringBootTest(properties = {"employee.slow-query.threshold=0ms", "employee.l2-cache.enabled=false"})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SlowQueryLogConfigTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeServiceImpl employeeService;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    private Logger slowQueryLogger;
+
+    @BeforeEach
+    public void setup() {
+        slowQueryLogger = (Logger) LoggerFactory.getLogger("net.javaguides.springboot.SLOW_QUERY");
+        appender = new ListAppender<>();
+        appender.start();
+        slowQueryLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        slowQueryLogger.detachAppender(appender);
+    }
+
+    // JUnit test for the slow query log
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for the slow query log")
+    public void givenZeroThreshold_whenGetEmployeeById_thenLogQueryWithParametersAndCallSite() {
+        // given - preconditions or setup
+        Employee employee = employeeRepository.save(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh.slow@gmail.com").build());
+        appender.list.clear();
+
+        // when - actions or the behaviour that we are going test
+        employeeService.getEmployeeById(employee.getId());
+
+        // then - verify the output
+        assertThat(dataSource).isInstanceOf(ProxyDataSource.class);
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .contains("EmployeeServiceImpl.getEmployeeById")
+                .contains("from employees")
+                .contains("params=[" + employee.getId() + "]");
+    }
+}
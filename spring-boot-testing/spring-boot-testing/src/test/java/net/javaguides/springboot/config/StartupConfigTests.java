@@ -0,0 +1,35 @@
+package net.javaguides.springboot.config;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("lazy")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class StartupConfigTests {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    // JUnit test for startup tasks under lazy initialization
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for startup tasks under lazy initialization")
+    public void givenLazyProfile_whenStarted_thenOnlyStartupTasksCreatedEagerly() {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+        boolean controllerCreated = beanFactory.containsSingleton("employeeController");
+        boolean searchIndexUpdaterCreated = beanFactory.containsSingleton("employeeSearchIndexUpdater");
+
+        // then - verify the output
+        assertThat(controllerCreated).isFalse();
+        assertThat(searchIndexUpdaterCreated).isTrue();
+        assertThat(beanFactory.containsSingleton("employeeSearchIndex")).isTrue();
+    }
+}
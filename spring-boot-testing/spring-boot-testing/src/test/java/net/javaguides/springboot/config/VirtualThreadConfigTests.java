@@ -0,0 +1,68 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("virtual-threads")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VirtualThreadConfigTests {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    // JUnit test for the Tomcat request executor
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for the Tomcat request executor")
+    public void givenVirtualThreadsEnabled_whenRequestHandled_thenTomcatRunsVirtualThreads() throws Exception {
+        // given - preconditions or setup
+        Executor tomcatExecutor = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector().getProtocolHandler().getExecutor();
+
+        // when - actions or the behaviour that we are going test
+        boolean tomcatThreadIsVirtual = CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), tomcatExecutor).get();
+        boolean asyncThreadIsVirtual = applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get();
+
+        // then - verify the output
+        assertThat(tomcatThreadIsVirtual).isTrue();
+        assertThat(asyncThreadIsVirtual).isTrue();
+    }
+
+    // JUnit test for JPA request handling on virtual threads
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for JPA request handling on virtual threads")
+    public void givenVirtualThreadsEnabled_whenCreateAndGetEmployee_thenReturnEmployee() {
+        // given - preconditions or setup
+        Employee employee = Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+
+        // when - actions or the behaviour that we are going test
+        ResponseEntity<Employee> created = restTemplate.postForEntity("/api/employees", employee, Employee.class);
+        ResponseEntity<Employee> fetched = restTemplate.getForEntity("/api/employees/{id}", Employee.class, created.getBody().getId());
+
+        // then - verify the output
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(fetched.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(fetched.getBody().getEmail()).isEqualTo("ramesh@gmail.com");
+    }
+}
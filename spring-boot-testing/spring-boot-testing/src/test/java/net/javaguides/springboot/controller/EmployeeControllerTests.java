@@ -2,19 +2,41 @@ package net.javaguides.springboot.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeeListing;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.StaleVersionException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.outbox.EmployeeChangeFeed;
+import net.javaguides.springboot.search.EmployeeSearchIndex;
 import net.javaguides.springboot.service.EmployeeService;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,6 +55,12 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -69,21 +97,11 @@ public class EmployeeControllerTests {
     @DisplayName("JUnit test for getAllEmployees REST API")
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception{
         // given - preconditions or setup
-        List<Employee> employeeList = new ArrayList<>();
-        employeeList.add(Employee.builder()
-                .id(0)
-                .firstName("Ramesh")
-                .lastName("Fadatare")
-                .email("ramesh@gmail.com")
-                .build());
-        employeeList.add(Employee.builder()
-                .id(1)
-                .firstName("Tony")
-                .lastName("Stark")
-                .email("tony@gmail.com")
-                .build());
+        List<EmployeeView> employeeList = new ArrayList<>();
+        employeeList.add(new EmployeeView(0, "Ramesh", "Fadatare", "ramesh@gmail.com", 0, null));
+        employeeList.add(new EmployeeView(1, "Tony", "Stark", "tony@gmail.com", 2, null));
 
-        given(employeeService.getAllEmployees()).willReturn(employeeList);
+        given(employeeService.getEmployeeListing(any())).willAnswer(invocation -> listing(invocation.getArgument(0), 0, employeeList));
 
         // when - actions or the behaviour that we are going test
         ResultActions response = mockMvc.perform(get("/api/employees"));
@@ -91,7 +109,9 @@ public class EmployeeControllerTests {
         // then - verify the output
         response.andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$.size()", is(employeeList.size())));
+                .andExpect(jsonPath("$.size()", is(employeeList.size())))
+                .andExpect(jsonPath("$[1].email", is("tony@gmail.com")))
+                .andExpect(jsonPath("$[1].version", is(2)));
 
     }
 
@@ -119,7 +139,8 @@ public class EmployeeControllerTests {
                 .andDo(print())
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName",is(employee.getLastName())))
-                .andExpect(jsonPath("$.email",is(employee.getEmail())));
+                .andExpect(jsonPath("$.email",is(employee.getEmail())))
+                .andExpect(header().string("ETag", "\"0\""));
 
     }
 
@@ -220,16 +241,538 @@ public class EmployeeControllerTests {
     @Test
     @Order(7)
     @DisplayName("JUnit test for delete employee REST API")
-    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception{
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn204() throws Exception{
         // given - preconditions or setup
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         // when - actions or the behaviour that we are going test
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
 
+        // then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+    }
+
+    // JUnit test for keyset paginated getEmployeesPage REST API
+    @Test
+    @Order(8)
+    @DisplayName("JUnit test for getEmployeesPage REST API")
+    public void givenCursor_whenGetEmployeesPage_thenReturnPage() throws Exception{
+        // given - preconditions or setup
+        Employee employee = Employee.builder()
+                .id(6)
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com")
+                .build();
+        String nextCursor = EmployeePage.encodeCursor(6L);
+        given(employeeService.getEmployeesPage(5L, 1)).willReturn(new EmployeePage(List.of(employee), nextCursor));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("cursor", EmployeePage.encodeCursor(5L))
+                .param("size", "1"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is(nextCursor)));
+    }
+
+    // JUnit test for getEmployeesPage REST API with a malformed cursor
+    @Test
+    @Order(9)
+    @DisplayName("JUnit test for getEmployeesPage REST API, invalid cursor")
+    public void givenInvalidCursor_whenGetEmployeesPage_thenReturn400() throws Exception{
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("cursor", "not-a-cursor")
+                .param("size", "10"));
+
+        // then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    // JUnit test for NDJSON streaming of all employees
+    @Test
+    @Order(10)
+    @DisplayName("JUnit test for streamAllEmployees REST API")
+    @SuppressWarnings("unchecked")
+    public void givenEmployees_whenStreamAllEmployees_thenReturnNdjson() throws Exception{
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().id(1).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+        Employee employee2 = Employee.builder().id(2).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(0);
+            action.accept(employee1);
+            action.accept(employee2);
+            return null;
+        }).given(employeeService).streamAllEmployees(any(Consumer.class));
+
+        // when - actions or the behaviour that we are going test
+        MvcResult mvcResult = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(mvcResult));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(employee1) + "\n"
+                        + objectMapper.writeValueAsString(employee2) + "\n"));
+    }
+
+    // JUnit test for bulk import REST API with a JSON array body
+    @Test
+    @Order(11)
+    @DisplayName("JUnit test for importEmployees REST API, JSON array")
+    @SuppressWarnings("unchecked")
+    public void givenJsonArray_whenImportEmployees_thenReturnImportResult() throws Exception{
+        // given - preconditions or setup
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build(),
+                Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+        given(employeeService.saveEmployees(anyList()))
+                .willAnswer(invocation -> new BulkImportResult(((List<Employee>) invocation.getArgument(0)).size(), List.of()));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employees)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.skippedEmails.size()", is(0)));
+    }
+
+    // JUnit test for bulk import REST API with an NDJSON body
+    @Test
+    @Order(12)
+    @DisplayName("JUnit test for importEmployees REST API, NDJSON")
+    public void givenNdjson_whenImportEmployees_thenReturnImportResult() throws Exception{
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+        Employee employee2 = Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(new BulkImportResult(1, List.of("tony@gmail.com")));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writeValueAsString(employee1) + "\n" + objectMapper.writeValueAsString(employee2) + "\n"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.skippedEmails[0]", is("tony@gmail.com")));
+        verify(employeeService, times(1)).saveEmployees(anyList());
+    }
+
+    // JUnit test for bulk import REST API with a malformed body
+    @Test
+    @Order(13)
+    @DisplayName("JUnit test for importEmployees REST API, malformed body")
+    public void givenMalformedBody_whenImportEmployees_thenReturn400() throws Exception{
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"firstName\": "));
+
+        // then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    // JUnit test for createEmployee REST API with an email that is already taken
+    @Test
+    @Order(14)
+    @DisplayName("JUnit test for createEmployee REST API, duplicate email")
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409() throws Exception{
+        // given - preconditions or setup
+        Employee employee = Employee.builder()
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceAlreadyExistsException("Employee already exists with given email: ramesh@gmail.com"));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
+    // JUnit test for name search REST API
+    @Test
+    @Order(15)
+    @DisplayName("JUnit test for searchEmployeesByName REST API")
+    public void givenNamePrefixes_whenSearchEmployeesByName_thenReturnMatchingEmployees() throws Exception{
+        // given - preconditions or setup
+        EmployeeView employee = new EmployeeView(1, "Ramesh", "Fadatare", "ramesh@gmail.com", 0, null);
+        given(employeeService.searchEmployeesByName("Fad", "Ra", 0, 20))
+                .willReturn(new SliceImpl<>(List.of(employee), PageRequest.of(0, 20), false));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("lastName", "Fad")
+                .param("firstName", "Ra"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(1)))
+                .andExpect(jsonPath("$.content[0].lastName", is(employee.lastName())))
+                .andExpect(jsonPath("$.last", is(true)));
+    }
+
+    // JUnit test for patchEmployee REST API
+    @Test
+    @Order(16)
+    @DisplayName("JUnit test for patchEmployee REST API")
+    public void givenMatchingIfMatch_whenPatchEmployee_thenReturn204WithNewETag() throws Exception{
+        // given - preconditions or setup
+        given(employeeService.patchEmployee(eq(1L), eq(3L), any(EmployeePatch.class))).willReturn(4L);
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L)
+                .contentType("application/merge-patch+json")
+                .header("If-Match", "\"3\"")
+                .content("{\"email\": \"ram@gmail.com\"}"));
+
+        // then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"4\""));
+        verify(employeeService).patchEmployee(eq(1L), eq(3L), argThat(patch ->
+                "ram@gmail.com".equals(patch.getEmail()) && patch.getFirstName() == null));
+    }
+
+    // JUnit test for patchEmployee REST API without or with a stale If-Match
+    @Test
+    @Order(17)
+    @DisplayName("JUnit test for patchEmployee REST API, missing or stale If-Match")
+    public void givenMissingOrStaleIfMatch_whenPatchEmployee_thenReturn428Or412() throws Exception{
+        // given - preconditions or setup
+        given(employeeService.patchEmployee(eq(1L), eq(2L), any(EmployeePatch.class)))
+                .willThrow(new StaleVersionException("Employee 1 is no longer at version 2"));
+        String patch = "{\"firstName\": \"Ram\"}";
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        mockMvc.perform(patch("/api/employees/{id}", 1L).contentType(MediaType.APPLICATION_JSON).content(patch))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(patch("/api/employees/{id}", 1L).contentType(MediaType.APPLICATION_JSON).content(patch)
+                        .header("If-Match", "\"2\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/employees/{id}", 1L).contentType(MediaType.APPLICATION_JSON).content(patch)
+                        .header("If-Match", "W/\"2\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // JUnit test for delete employee REST API with an unknown id
+    @Test
+    @Order(18)
+    @DisplayName("JUnit test for delete employee REST API, unknown id")
+    public void givenUnknownEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception{
+        // given - preconditions or setup
+        given(employeeService.deleteEmployee(2L)).willReturn(false);
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 2L));
+
+        // then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    // JUnit test for bulk delete REST API
+    @Test
+    @Order(19)
+    @DisplayName("JUnit test for bulk delete REST API")
+    public void givenIdsOrEmailDomain_whenDeleteEmployees_thenReturnDeletedCount() throws Exception{
+        // given - preconditions or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(new BulkDeleteResult(List.of(1L, 3L)));
+        given(employeeService.deleteEmployeesByEmailDomain("example.com")).willReturn(new BulkDeleteResult(List.of(4L, 5L, 6L, 7L, 8L)));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions byIds = mockMvc.perform(delete("/api/employees").param("ids", "1,2,3"));
+        ResultActions byDomain = mockMvc.perform(delete("/api/employees").param("emailDomain", "example.com"));
+
+        // then - verify the output
+        byIds.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.deleted", is(2)));
+        byDomain.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.deleted", is(5)));
+    }
+
+    // JUnit test for the summary listing REST API
+    @Test
+    @Order(20)
+    @DisplayName("JUnit test for getEmployeeSummaries REST API")
+    public void givenEmployees_whenGetEmployeeSummaries_thenReturnIdsAndNamesOnly() throws Exception{
+        // given - preconditions or setup
+        given(employeeService.getEmployeeSummaries())
+                .willReturn(List.of(new EmployeeSummary(1, "Ramesh", "Fadatare"), new EmployeeSummary(2, "Tony", "Stark")));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("view", "summary"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].firstName", is("Ramesh")))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+    }
+
+    // JUnit test for the full-text search REST API
+    @Test
+    @Order(21)
+    @DisplayName("JUnit test for full-text search REST API")
+    public void givenQuery_whenSearchEmployees_thenReturnRankedHitsWithCappedLimit() throws Exception{
+        // given - preconditions or setup
+        given(employeeSearchIndex.search("ramsh", 100))
+                .willReturn(List.of(new EmployeeSearchHit(1, "Ramesh", "Fadatare", "ramesh@gmail.com", 2.5f)));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "ramsh")
+                .param("limit", "5000"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].email", is("ramesh@gmail.com")));
+    }
+
+    // JUnit test for the long-poll change feed REST API
+    @Test
+    @Order(22)
+    @DisplayName("JUnit test for change feed REST API")
+    public void givenChangesAfterOffset_whenGetChanges_thenReturnChangesAndNextOffset() throws Exception{
+        // given - preconditions or setup
+        EmployeeChange saved = EmployeeChange.builder().id(42).employeeId(1).type(EmployeeChange.Type.SAVED)
+                .version(0L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+        EmployeeChange deleted = EmployeeChange.builder().id(43).employeeId(2).type(EmployeeChange.Type.DELETED).build();
+        given(employeeChangeFeed.poll(eq(41L), eq(1000), any()))
+                .willReturn(CompletableFuture.completedFuture(List.of(saved, deleted)));
+        given(employeeChangeFeed.poll(eq(43L), eq(100), any()))
+                .willReturn(CompletableFuture.completedFuture(List.of()));
+
+        // when - actions or the behaviour that we are going test
+        MvcResult changesResult = mockMvc.perform(get("/api/employees/changes").param("after", "41").param("limit", "5000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult emptyResult = mockMvc.perform(get("/api/employees/changes").param("after", "43"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(changesResult))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.changes.size()", is(2)))
+                .andExpect(jsonPath("$.changes[0].type", is("SAVED")))
+                .andExpect(jsonPath("$.changes[1].type", is("DELETED")))
+                .andExpect(jsonPath("$.nextOffset", is(43)));
+        mockMvc.perform(asyncDispatch(emptyResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.size()", is(0)))
+                .andExpect(jsonPath("$.nextOffset", is(43)));
+    }
+
+    // JUnit test for delta sync REST API
+    @Test
+    @Order(23)
+    @DisplayName("JUnit test for delta sync REST API")
+    public void givenSyncToken_whenGetEmployeesChangedSince_thenReturnChangesAndTombstones() throws Exception{
+        // given - preconditions or setup
+        EmployeeDelta.Token since = new EmployeeDelta.Token(Instant.parse("2024-01-01T00:00:00Z"), 7L);
+        EmployeeView changed = new EmployeeView(1, "Ramesh", "Fadatare", "ramesh@gmail.com", 1, Instant.parse("2024-01-02T00:00:00Z"));
+        given(employeeService.getEmployeesChangedSince(since, 1000))
+                .willReturn(new EmployeeDelta(List.of(changed), List.of(5L), "next", false));
+        given(employeeService.getEmployeesChangedSince(EmployeeDelta.Token.START, 10))
+                .willReturn(new EmployeeDelta(List.of(), List.of(), "next", false));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("changedSince", since.encode()));
+        ResultActions fullSync = mockMvc.perform(get("/api/employees").param("changedSince", "").param("limit", "10"));
+        ResultActions invalidToken = mockMvc.perform(get("/api/employees").param("changedSince", "not-a-token"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.changed[0].email", is("ramesh@gmail.com")))
+                .andExpect(jsonPath("$.changed[0].updatedAt", is("2024-01-02T00:00:00Z")))
+                .andExpect(jsonPath("$.deleted[0]", is(5)))
+                .andExpect(jsonPath("$.nextToken", is("next")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+        fullSync.andExpect(status().isOk());
+        invalidToken.andExpect(status().isBadRequest());
+    }
+
+    // JUnit test for GET employee by email REST API
+    @Test
+    @Order(24)
+    @DisplayName("JUnit test for GET employee by email REST API")
+    public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeOr404() throws Exception{
+        // given - preconditions or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com")
+                .version(2L)
+                .build();
+        given(employeeService.getEmployeeByEmail("Ramesh@gmail.com")).willReturn(Optional.of(employee));
+        given(employeeService.getEmployeeByEmail("tony@gmail.com")).willReturn(Optional.empty());
+
+        // when - actions or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", "Ramesh@gmail.com"));
+        ResultActions missing = mockMvc.perform(get("/api/employees").param("email", "tony@gmail.com"));
+
         // then - verify the output
         response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(header().string("ETag", "\"2\""));
+        missing.andExpect(status().isNotFound());
+    }
+
+    // JUnit test for conditional GET employee by id REST API
+    @Test
+    @Order(25)
+    @DisplayName("JUnit test for conditional GET employee by id REST API")
+    public void givenIfNoneMatch_whenGetEmployeeById_thenNotModifiedWithoutLoadingOrChangedEmployee() throws Exception{
+        // given - preconditions or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com")
+                .version(3L)
+                .build();
+        given(employeeService.getEmployeeVersion(1L)).willReturn(OptionalLong.of(3L));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions unchanged = mockMvc.perform(get("/api/employees/{id}", 1L).header("If-None-Match", "W/\"3\""));
+        then(employeeService).should(never()).getEmployeeById(anyLong());
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        ResultActions changed = mockMvc.perform(get("/api/employees/{id}", 1L).header("If-None-Match", "\"1\", \"2\""));
+
+        // then - verify the output
+        unchanged.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string(""));
+        changed.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.email", is("ramesh@gmail.com")));
+    }
+
+    // JUnit test for conditional GET of all employees REST API
+    @Test
+    @Order(26)
+    @DisplayName("JUnit test for conditional GET of all employees REST API")
+    public void givenIfNoneMatch_whenGetAllEmployeesUnchanged_thenNotModifiedWithoutListing() throws Exception{
+        // given - preconditions or setup
+        List<EmployeeView> employeeList = List.of(new EmployeeView(1, "Tony", "Stark", "tony@gmail.com", 2, null));
+        given(employeeService.getEmployeeListing(any())).willAnswer(invocation -> listing(invocation.getArgument(0), 5, employeeList));
+        String eTag = mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"5\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when - actions or the behaviour that we are going test
+        ResultActions unchanged = mockMvc.perform(get("/api/employees").header("If-None-Match", eTag));
+        willAnswer(invocation -> listing(invocation.getArgument(0), 6, employeeList)).given(employeeService).getEmployeeListing(any());
+        ResultActions changed = mockMvc.perform(get("/api/employees").header("If-None-Match", eTag));
+
+        // then - verify the output
+        unchanged.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string("ETag", eTag));
+        changed.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"6\""))
+                .andExpect(jsonPath("$[0].email", is("tony@gmail.com")));
+        then(employeeService).should(never()).getAllEmployees();
+    }
+
+    // JUnit test for conditional and concurrent PUT REST API
+    @Test
+    @Order(27)
+    @DisplayName("JUnit test for conditional and concurrent PUT REST API")
+    public void givenStaleVersion_whenUpdateEmployee_thenReturn412() throws Exception{
+        // given - preconditions or setup
+        Employee savedEmployee = Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare")
+                .email("ramesh@gmail.com").version(3L).build();
+        Employee updatedEmployee = Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build();
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> Optional.of(savedEmployee.toBuilder().build()));
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willThrow(new StaleVersionException("Employee 1 is no longer at version 3"));
+
+        // when - actions or the behaviour that we are going test
+        ResultActions staleIfMatch = mockMvc.perform(put("/api/employees/{id}", 1L)
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+        ResultActions concurrentUpdate = mockMvc.perform(put("/api/employees/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // then - verify the output
+        staleIfMatch.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+        concurrentUpdate.andExpect(status().isPreconditionFailed());
+        then(employeeService).should(times(1)).updateEmployee(any(Employee.class));
+    }
+
+    // JUnit test for name search REST API past the search depth
+    @Test
+    @Order(28)
+    @DisplayName("JUnit test for name search REST API past the search depth")
+    public void givenPageBeyondSearchDepth_whenSearchEmployeesByName_thenReturn400() throws Exception{
+        // given - preconditions or setup
+        int size = 1000;
+
+        // when - actions or the behaviour that we are going test
+        ResultActions deepPage = mockMvc.perform(get("/api/employees/search")
+                .param("lastName", "Fad")
+                .param("page", "10")
+                .param("size", Integer.toString(size)));
+        ResultActions overflowingPage = mockMvc.perform(get("/api/employees/search")
+                .param("lastName", "Fad")
+                .param("page", Integer.toString(Integer.MAX_VALUE))
+                .param("size", Integer.toString(size)));
+
+        // then - verify the output
+        deepPage.andExpect(status().isBadRequest())
                 .andDo(print());
+        overflowingPage.andExpect(status().isBadRequest());
+        then(employeeService).should(never()).searchEmployeesByName(any(), any(), anyInt(), anyInt());
+    }
+
+    // what the service returns, the listing is left out when the caller knows the version
+    private static EmployeeListing listing(LongPredicate known, long version, List<EmployeeView> employees) {
+        return new EmployeeListing(version, known.test(version) ? null : employees);
     }
 }
@@ -0,0 +1,102 @@
+package net.javaguides.springboot.outbox;
+
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EmployeeChangeFeedTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    private long offset;
+
+    @BeforeEach
+    public void setup() {
+        // other tests share the database, only look at changes made from here on
+        List<EmployeeChange> changes = employeeChangeFeed.read(0, Integer.MAX_VALUE);
+        offset = changes.isEmpty() ? 0 : changes.get(changes.size() - 1).getId();
+    }
+
+    // JUnit test for outbox rows written by EmployeeService
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for outbox rows written by EmployeeService")
+    public void givenEmployeeWrites_whenReadChanges_thenReturnChangesInCommitOrder() {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh.outbox@gmail.com").build());
+
+        // when - actions or the behaviour that we are going test
+        long version = employeeService.patchEmployee(employee.getId(), null, EmployeePatch.builder().firstName("Ram").build());
+        employeeService.deleteEmployee(employee.getId());
+        List<EmployeeChange> changes = employeeChangeFeed.read(offset, 10);
+
+        // then - verify the output
+        assertThat(changes).extracting(EmployeeChange::getType)
+                .containsExactly(EmployeeChange.Type.SAVED, EmployeeChange.Type.PATCHED, EmployeeChange.Type.DELETED);
+        assertThat(changes).extracting(EmployeeChange::getEmployeeId).containsOnly(employee.getId());
+        assertThat(changes.get(0).getEmail()).isEqualTo("ramesh.outbox@gmail.com");
+        assertThat(changes.get(1).getFirstName()).isEqualTo("Ram");
+        assertThat(changes.get(1).getLastName()).isNull();
+        assertThat(changes.get(1).getVersion()).isEqualTo(version);
+    }
+
+    // JUnit test for rolled back writes
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for rolled back writes")
+    public void givenDuplicateEmail_whenSaveEmployee_thenNoChangeRecorded() {
+        // given - preconditions or setup
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Tony").lastName("Stark").email("tony.outbox@gmail.com").build());
+        long offsetAfterSave = employeeChangeFeed.read(offset, 10).get(0).getId();
+
+        // when - actions or the behaviour that we are going test
+        assertThatThrownBy(() -> employeeService.saveEmployee(
+                Employee.builder().firstName("Tony").lastName("Stark").email("tony.outbox@gmail.com").build()))
+                .isInstanceOf(ResourceAlreadyExistsException.class);
+
+        // then - verify the output
+        assertThat(employeeChangeFeed.read(offsetAfterSave, 10)).isEmpty();
+        employeeService.deleteEmployee(employee.getId());
+    }
+
+    // JUnit test for long-polling the change feed
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for long-polling the change feed")
+    public void givenWaitingPoll_whenEmployeeSaved_thenPollCompletesWithChange() throws Exception {
+        // given - preconditions or setup
+        CompletableFuture<List<EmployeeChange>> poll = employeeChangeFeed.poll(offset, 10, Duration.ofSeconds(10));
+        CompletableFuture<List<EmployeeChange>> expiredPoll = employeeChangeFeed.poll(offset, 10, Duration.ofMillis(50));
+        assertThat(expiredPoll.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(poll).isNotDone();
+
+        // when - actions or the behaviour that we are going test
+        Employee employee = employeeService.saveEmployee(
+                Employee.builder().firstName("Bruce").lastName("Wayne").email("bruce.outbox@gmail.com").build());
+
+        // then - verify the output
+        assertThat(poll.get(5, TimeUnit.SECONDS)).extracting(EmployeeChange::getEmployeeId).containsExactly(employee.getId());
+        employeeService.deleteEmployee(employee.getId());
+    }
+}
@@ -1,20 +1,41 @@
 package net.javaguides.springboot.repository;
 
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSummary;
+import net.javaguides.springboot.dto.EmployeeView;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.model.TableVersion;
+import org.hibernate.Session;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class EmployeeRepositoryTests {
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private TableVersionRepository tableVersionRepository;
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+    @Autowired
+    private EntityManager entityManager;
     private Employee employee;
 
     @BeforeEach
@@ -164,6 +185,7 @@ public class EmployeeRepositoryTests {
     @Test
     @Order(7)
     @DisplayName("JUnit test for custom query using JPQL with index")
+    @SuppressWarnings("deprecation")
     public void givenFirstAndLastName_whenFindByJPQL_thenReturnEmployeeObject() {
 
         // given - preconditions or setup
@@ -189,6 +211,7 @@ public class EmployeeRepositoryTests {
     @Test
     @Order(8)
     @DisplayName("JUnit test for custom query using JPQL with named params")
+    @SuppressWarnings("deprecation")
     public void givenFirstAndLastName_whenFindByJPQLNamedParams_thenReturnEmployeeObject() {
 
         // given - preconditions or setup
@@ -214,6 +237,7 @@ public class EmployeeRepositoryTests {
     @Test
     @Order(9)
     @DisplayName("JUnit test for custom query using SQL with index")
+    @SuppressWarnings("deprecation")
     public void givenFirstAndLastName_whenFindByNativeSQL_thenReturnEmployeeObject() {
 
         // given - preconditions or setup
@@ -238,6 +262,7 @@ public class EmployeeRepositoryTests {
     @Test
     @Order(10)
     @DisplayName("JUnit test for custom query using SQL with named params")
+    @SuppressWarnings("deprecation")
     public void givenFirstAndLastName_whenFindByNativeSQLNamedParams_thenReturnEmployeeObject() {
 
         // given - preconditions or setup
@@ -255,4 +280,297 @@ public class EmployeeRepositoryTests {
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
     }
-}
\ No newline at end of file
+
+    // JUnit test for keyset pagination query
+    @Test
+    @Order(11)
+    @DisplayName("JUnit test for keyset pagination query")
+    public void givenEmployeesList_whenFindNextPage_thenReturnEmployeesAfterId() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("John").lastName("Smith").email("John@Cena.com").build();
+        Employee employee2 = Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        // when - actions or the behaviour that we are going test
+        List<Employee> firstPage = employeeRepository.findNextPage(0L, PageRequest.ofSize(2));
+        List<Employee> secondPage = employeeRepository.findNextPage(firstPage.get(1).getId(), PageRequest.ofSize(2));
+
+        // then - verify the output
+        assertThat(firstPage).extracting(Employee::getId).containsExactly(employee.getId(), employee1.getId());
+        assertThat(secondPage).extracting(Employee::getId).containsExactly(employee2.getId());
+    }
+
+    // JUnit test for streaming all employees
+    @Test
+    @Order(12)
+    @DisplayName("JUnit test for streaming all employees")
+    public void givenEmployeesList_whenStreamAll_thenStreamEmployeesInIdOrder() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("John").lastName("Smith").email("John@Cena.com").build();
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee);
+
+        // when - actions or the behaviour that we are going test
+        List<Long> ids;
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            ids = employees.map(Employee::getId).toList();
+        }
+
+        // then - verify the output
+        assertThat(ids).containsExactly(employee1.getId(), employee.getId());
+    }
+
+    // JUnit test for checking existing emails with one IN query
+    @Test
+    @Order(13)
+    @DisplayName("JUnit test for find existing emails operation")
+    public void givenEmails_whenFindExistingEmails_thenReturnOnlyRegisteredEmails() {
+        // given - preconditions or setup
+        employeeRepository.save(employee);
+
+        // when - actions or the behaviour that we are going test
+        Set<String> existingEmails = employeeRepository.findExistingEmails(List.of(employee.getEmail(), "tony@gmail.com"));
+
+        // then - verify the output
+        assertThat(existingEmails).containsExactly(employee.getEmail());
+    }
+
+    // JUnit test for case-insensitive get employee by email operation
+    @Test
+    @Order(14)
+    @DisplayName("JUnit test for case-insensitive get employee by email operation")
+    public void givenEmailInOtherCase_whenFindByEmail_thenReturnEmployeeObject() {
+        // given - preconditions or setup
+        employeeRepository.save(employee);
+
+        // when - actions or the behaviour that we are going test
+        Optional<Employee> employeeDB = employeeRepository.findByEmail("RAMESH@Kakar.com");
+
+        // then - verify the output
+        assertThat(employeeDB).isPresent();
+        assertThat(employeeDB.get().getEmail()).isEqualTo("ramesh@kakar.com");
+    }
+
+    // JUnit test for the unique email constraint
+    @Test
+    @Order(15)
+    @DisplayName("JUnit test for the unique email constraint")
+    public void givenDuplicateEmailInOtherCase_whenSaveAndFlush_thenThrowsException() {
+        // given - preconditions or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee duplicate = Employee.builder().firstName("Ram").lastName("Kakar").email("RAMESH@KAKAR.COM").build();
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Employee.EMAIL_UNIQUE_CONSTRAINT.toUpperCase());
+    }
+
+    // JUnit test for prefix name search with duplicate names
+    @Test
+    @Order(16)
+    @DisplayName("JUnit test for prefix name search operation")
+    public void givenDuplicateNames_whenFindByNamePrefix_thenReturnAllMatchesInNameOrder() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("Ramesh").lastName("Kakar").email("ramesh.k@gmail.com").build();
+        Employee employee2 = Employee.builder().firstName("Raj").lastName("Kakkar").email("raj@gmail.com").build();
+        Employee employee3 = Employee.builder().firstName("Tony").lastName("Kapoor").email("tony@gmail.com").build();
+        employeeRepository.save(employee2);
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee3);
+
+        // when - actions or the behaviour that we are going test
+        Slice<Employee> firstPage = employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith("Kak", "Ra",
+                PageRequest.of(0, 2, Sort.by("lastName", "firstName", "id")));
+        Slice<Employee> secondPage = employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith("Kak", "Ra",
+                firstPage.nextPageable());
+
+        // then - verify the output
+        assertThat(firstPage.getContent()).extracting(Employee::getId).containsExactly(employee.getId(), employee1.getId());
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).extracting(Employee::getId).containsExactly(employee2.getId());
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    // JUnit test for prefix name search escaping wildcards
+    @Test
+    @Order(17)
+    @DisplayName("JUnit test for prefix name search escaping wildcards")
+    public void givenWildcardPrefix_whenFindByNamePrefix_thenMatchLiterally() {
+        // given - preconditions or setup
+        employeeRepository.save(employee);
+
+        // when - actions or the behaviour that we are going test
+        Slice<Employee> employees = employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith("%", "",
+                PageRequest.of(0, 20));
+
+        // then - verify the output
+        assertThat(employees.getContent()).isEmpty();
+    }
+
+    // JUnit test for single statement patch operation
+    @Test
+    @Order(18)
+    @DisplayName("JUnit test for single statement patch operation")
+    public void givenEmployeeObject_whenPatchEmployee_thenUpdateOnlyPatchedColumnsAndVersion() {
+        // given - preconditions or setup
+        employeeRepository.saveAndFlush(employee);
+        long version = employee.getVersion();
+
+        // when - actions or the behaviour that we are going test
+        int updated = employeeRepository.patchEmployee(employee.getId(), version,
+                EmployeePatch.builder().firstName("Ram").build());
+        int staleUpdated = employeeRepository.patchEmployee(employee.getId(), version,
+                EmployeePatch.builder().lastName("Fadatare").build());
+        entityManager.clear();
+
+        // then - verify the output
+        Employee patchedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updated).isEqualTo(1);
+        assertThat(staleUpdated).isZero();
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Ram");
+        assertThat(patchedEmployee.getLastName()).isEqualTo("Kakar");
+        assertThat(patchedEmployee.getVersion()).isEqualTo(version + 1);
+        assertThat(employeeRepository.findVersionById(employee.getId())).contains(version + 1);
+    }
+
+    // JUnit test for single statement delete operations
+    @Test
+    @Order(19)
+    @DisplayName("JUnit test for single statement delete operations")
+    public void givenEmployees_whenFindIdsByEmailLikeAndDeleteByIds_thenReturnDeletedCounts() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("John").lastName("Cena").email("john@example.com").build();
+        Employee employee2 = Employee.builder().firstName("Tony").lastName("Stark").email("tony@example.com").build();
+        Employee employee3 = Employee.builder().firstName("Bruce").lastName("Wayne").email("bruce@example_com.org").build();
+        employeeRepository.saveAll(List.of(employee, employee1, employee2, employee3));
+
+        // when - actions or the behaviour that we are going test
+        int deletedById = employeeRepository.deleteEmployeeById(employee.getId());
+        int deletedAgain = employeeRepository.deleteEmployeeById(employee.getId());
+        List<Long> domainIds = employeeRepository.lockIdsByEmailLike("%@example.com");
+        List<Long> existingIds = employeeRepository.lockExistingIds(List.of(employee.getId(), employee3.getId(), 999_999L));
+        int deletedByIds = employeeRepository.deleteEmployeesByIds(List.of(employee1.getId(), employee2.getId(), employee3.getId()));
+
+        // then - verify the output
+        assertThat(deletedById).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+        assertThat(domainIds).containsExactlyInAnyOrder(employee1.getId(), employee2.getId());
+        assertThat(existingIds).containsExactly(employee3.getId());
+        assertThat(deletedByIds).isEqualTo(3);
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    // JUnit test for projection queries
+    @Test
+    @Order(20)
+    @DisplayName("JUnit test for projection queries")
+    public void givenEmployees_whenFindProjections_thenReturnRecordsWithoutManagedEntities() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("Raj").lastName("Kakkar").email("raj@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee1));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when - actions or the behaviour that we are going test
+        List<EmployeeView> views = employeeRepository.findAllViews();
+        List<EmployeeSummary> summaries = employeeRepository.findAllSummaries();
+        Slice<EmployeeView> searched = employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith("Kakk", "",
+                PageRequest.of(0, 20, Sort.by("lastName", "firstName", "id")), EmployeeView.class);
+
+        // then - verify the output
+        assertThat(views).usingRecursiveFieldByFieldElementComparatorIgnoringFields("updatedAt").containsExactly(
+                new EmployeeView(employee.getId(), "Ramesh", "Kakar", "ramesh@kakar.com", 0, null),
+                new EmployeeView(employee1.getId(), "Raj", "Kakkar", "raj@gmail.com", 0, null));
+        assertThat(views).allSatisfy(view -> assertThat(view.updatedAt()).isNotNull());
+        assertThat(summaries).containsExactly(
+                new EmployeeSummary(employee.getId(), "Ramesh", "Kakar"),
+                new EmployeeSummary(employee1.getId(), "Raj", "Kakkar"));
+        assertThat(searched.getContent()).extracting(EmployeeView::email).containsExactly("raj@gmail.com");
+        assertThat(entityManager.contains(employee)).isFalse();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    // JUnit test for audit timestamps and the delta sync query
+    @Test
+    @Order(21)
+    @DisplayName("JUnit test for audit timestamps and the delta sync query")
+    public void givenEmployees_whenFindChangedSince_thenSeekByUpdatedAtAndId() {
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("Raj").lastName("Kakkar").email("raj@gmail.com").build();
+        Employee employee2 = Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee1, employee2));
+        entityManager.flush();
+        employeeRepository.patchEmployee(employee.getId(), null, EmployeePatch.builder().firstName("Ram").build());
+        entityManager.clear();
+        Instant until = Instant.now().plusSeconds(1);
+
+        // when - actions or the behaviour that we are going test
+        List<EmployeeView> firstPage = employeeRepository.findChangedSince(Instant.EPOCH, 0L, until, PageRequest.ofSize(2));
+        EmployeeView last = firstPage.get(1);
+        List<EmployeeView> secondPage = employeeRepository.findChangedSince(last.updatedAt(), last.id(), until, PageRequest.ofSize(2));
+        List<EmployeeView> beforeAnyChange = employeeRepository.findChangedSince(Instant.EPOCH, 0L, Instant.EPOCH, PageRequest.ofSize(2));
+
+        // then - verify the output
+        Employee patchedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(patchedEmployee.getCreatedAt()).isNotNull();
+        assertThat(patchedEmployee.getUpdatedAt()).isAfter(patchedEmployee.getCreatedAt());
+        assertThat(firstPage).extracting(EmployeeView::id).containsExactly(employee1.getId(), employee2.getId());
+        assertThat(secondPage).extracting(EmployeeView::firstName).containsExactly("Ram");
+        assertThat(beforeAnyChange).isEmpty();
+    }
+
+    // JUnit test for the version of the whole employees table
+    @Test
+    @Order(22)
+    @DisplayName("JUnit test for the version of the whole employees table")
+    public void givenTableVersionRow_whenIncremented_thenFindVersionReturnsNextVersion() {
+        // given - preconditions or setup
+        long created = tableVersionRepository.findVersion(TableVersion.EMPLOYEES).orElseThrow();
+
+        // when - actions or the behaviour that we are going test
+        int incremented = tableVersionRepository.incrementVersion(TableVersion.EMPLOYEES);
+        tableVersionRepository.incrementVersion(TableVersion.EMPLOYEES);
+        int missing = tableVersionRepository.incrementVersion("departments");
+
+        // then - verify the output
+        assertThat(created).isZero();
+        assertThat(incremented).isEqualTo(1);
+        assertThat(tableVersionRepository.findVersion(TableVersion.EMPLOYEES)).contains(2L);
+        assertThat(missing).isZero();
+        assertThat(tableVersionRepository.findVersion("departments")).isEmpty();
+    }
+
+    // JUnit test for paging the tombstones of a delta sync
+    @Test
+    @Order(23)
+    @DisplayName("JUnit test for paging the tombstones of a delta sync")
+    public void givenTombstones_whenFindChangedSince_thenSeekByOccurredAtAndEmployeeId() {
+        // given - preconditions or setup
+        Instant deletedAt = Instant.parse("2024-01-02T00:00:00Z");
+        employeeChangeRepository.saveAll(List.of(
+                EmployeeChange.builder().employeeId(9L).type(EmployeeChange.Type.DELETED).occurredAt(deletedAt).build(),
+                EmployeeChange.builder().employeeId(4L).type(EmployeeChange.Type.DELETED).occurredAt(deletedAt).build(),
+                EmployeeChange.builder().employeeId(6L).type(EmployeeChange.Type.SAVED).version(0L).occurredAt(deletedAt).build(),
+                EmployeeChange.builder().employeeId(1L).type(EmployeeChange.Type.DELETED).occurredAt(deletedAt.plusSeconds(1)).build()));
+        entityManager.flush();
+        Instant until = deletedAt.plusSeconds(1);
+
+        // when - actions or the behaviour that we are going test
+        List<EmployeeChange> firstPage = employeeChangeRepository.findChangedSince(EmployeeChange.Type.DELETED,
+                Instant.EPOCH, 0L, until, PageRequest.ofSize(2));
+        List<EmployeeChange> secondPage = employeeChangeRepository.findChangedSince(EmployeeChange.Type.DELETED,
+                deletedAt, 9L, until, PageRequest.ofSize(2));
+        List<EmployeeChange> beforeUntil = employeeChangeRepository.findChangedSince(EmployeeChange.Type.DELETED,
+                deletedAt, 9L, deletedAt, PageRequest.ofSize(2));
+
+        // then - verify the output
+        assertThat(firstPage).extracting(EmployeeChange::getEmployeeId).containsExactly(4L, 9L);
+        assertThat(secondPage).extracting(EmployeeChange::getEmployeeId).containsExactly(1L);
+        assertThat(beforeUntil).isEmpty();
+    }
+}
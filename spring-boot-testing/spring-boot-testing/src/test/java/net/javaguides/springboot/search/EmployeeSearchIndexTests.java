@@ -0,0 +1,107 @@
+package net.javaguides.springboot.search;
+
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeSearchHit;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EmployeeSearchIndexTests {
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @BeforeEach
+    public void setup() {
+        employeeSearchIndex = new EmployeeSearchIndex();
+        List<Employee> employees = List.of(
+                Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build(),
+                Employee.builder().id(2L).firstName("Rames").lastName("Stark").email("rames@example.com").build(),
+                Employee.builder().id(3L).firstName("Tony").lastName("Stark").email("tony@example.com").build());
+        employeeSearchIndex.rebuild(employees::forEach);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        employeeSearchIndex.close();
+    }
+
+    // JUnit test for prefix and fuzzy search
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for prefix and fuzzy search")
+    public void givenIndexedEmployees_whenSearchPrefixOrTypo_thenReturnMatches() {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+        List<EmployeeSearchHit> prefixHits = employeeSearchIndex.search("fada", 10);
+        List<EmployeeSearchHit> typoHits = employeeSearchIndex.search("Fadatrae", 10);
+        List<EmployeeSearchHit> bothTermsHits = employeeSearchIndex.search("tony stark", 10);
+
+        // then - verify the output
+        assertThat(employeeSearchIndex.size()).isEqualTo(3);
+        assertThat(prefixHits).extracting(EmployeeSearchHit::id).containsExactly(1L);
+        assertThat(typoHits).extracting(EmployeeSearchHit::id).containsExactly(1L);
+        assertThat(bothTermsHits).extracting(EmployeeSearchHit::id).containsExactly(3L);
+    }
+
+    // JUnit test for search ranking
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for search ranking")
+    public void givenExactAndFuzzyMatches_whenSearch_thenExactMatchRanksFirst() {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+        List<EmployeeSearchHit> hits = employeeSearchIndex.search("rames", 10);
+
+        // then - verify the output
+        assertThat(hits).extracting(EmployeeSearchHit::id).containsExactly(2L, 1L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    // JUnit test for index updates
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for index updates")
+    public void givenIndexedEmployees_whenPatchAndDelete_thenSearchReflectsChanges() {
+        // given - preconditions or setup
+
+        // when - actions or the behaviour that we are going test
+        employeeSearchIndex.patch(3L, 1L, EmployeePatch.builder().firstName("Anthony").build());
+        employeeSearchIndex.delete(List.of(1L));
+        employeeSearchIndex.index(List.of(
+                Employee.builder().id(4L).firstName("Bruce").lastName("Banner").email("bruce@example.com").build()));
+
+        // then - verify the output
+        assertThat(employeeSearchIndex.search("anthony", 10)).singleElement()
+                .satisfies(hit -> assertThat(hit.email()).isEqualTo("tony@example.com"));
+        assertThat(employeeSearchIndex.search("fadatare", 10)).isEmpty();
+        assertThat(employeeSearchIndex.search("bann", 10)).extracting(EmployeeSearchHit::id).containsExactly(4L);
+    }
+
+    // JUnit test for index updates applied out of commit order
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for index updates applied out of commit order")
+    public void givenNewerUpdatesApplied_whenOlderUpdatesArriveLate_thenIndexKeepsNewerVersion() {
+        // given - preconditions or setup: version 2 patched the first name after version 1 replaced every field
+        employeeSearchIndex.patch(3L, 2L, EmployeePatch.builder().firstName("Anthony").build());
+        employeeSearchIndex.delete(List.of(2L));
+
+        // when - actions or the behaviour that we are going test
+        employeeSearchIndex.index(List.of(
+                Employee.builder().id(3L).firstName("Tony").lastName("Starck").email("tony@stark.com").version(1L).build(),
+                Employee.builder().id(2L).firstName("Rames").lastName("Stark").email("rames@example.com").version(1L).build()));
+        employeeSearchIndex.patch(3L, 2L, EmployeePatch.builder().firstName("Tony").build());
+
+        // then - verify the output
+        assertThat(employeeSearchIndex.search("anthony starck", 10)).singleElement()
+                .satisfies(hit -> assertThat(hit.email()).isEqualTo("tony@stark.com"));
+        assertThat(employeeSearchIndex.search("rames", 10)).extracting(EmployeeSearchHit::id).containsExactly(1L);
+        assertThat(employeeSearchIndex.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,282 @@
+package net.javaguides.springboot.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.CachingEmployeeService;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CachingEmployeeServiceTests {
+
+    private EmployeeService employeeServiceImpl;
+    private AsyncCache<Long, Employee> cache;
+    private CachingEmployeeService employeeService;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeServiceImpl = mock(EmployeeService.class, withSettings().stubOnly());
+        cache = Caffeine.newBuilder().maximumSize(2).executor(Runnable::run).recordStats().buildAsync();
+        employeeService = new CachingEmployeeService(employeeServiceImpl, cache);
+        employee = Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    }
+
+    // JUnit test for getEmployeeById read-through
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for getEmployeeById read-through")
+    public void givenCachedEmployee_whenGetEmployeeById_thenLoadOnlyOnce() {
+        // given - preconditions or setup
+        AtomicInteger loads = new AtomicInteger();
+        given(employeeServiceImpl.getEmployeeById(1L)).willAnswer(invocation -> {
+            loads.incrementAndGet();
+            return Optional.of(employee);
+        });
+
+        // when - actions or the behaviour that we are going test
+        employeeService.getEmployeeById(1L);
+        Employee cachedEmployee = employeeService.getEmployeeById(1L).get();
+
+        // then - verify the output
+        assertThat(cachedEmployee.getFirstName()).isEqualTo("Ramesh");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(employeeService.stats().hitCount()).isEqualTo(1);
+        assertThat(employeeService.stats().missCount()).isEqualTo(1);
+    }
+
+    // JUnit test for getEmployeeById returning copies
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for getEmployeeById returning copies")
+    public void givenReturnedEmployeeIsModified_whenGetEmployeeById_thenCacheIsUnchanged() {
+        // given - preconditions or setup
+        given(employeeServiceImpl.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L).get().setFirstName("Ram");
+
+        // when - actions or the behaviour that we are going test
+        Employee cachedEmployee = employeeService.getEmployeeById(1L).get();
+
+        // then - verify the output
+        assertThat(cachedEmployee.getFirstName()).isEqualTo("Ramesh");
+    }
+
+    // JUnit test for getEmployeeById with an unknown id
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for getEmployeeById with an unknown id")
+    public void givenUnknownId_whenGetEmployeeById_thenReturnEmptyAndCacheNothing() {
+        // given - preconditions or setup
+        given(employeeServiceImpl.getEmployeeById(2L)).willReturn(Optional.empty());
+
+        // when - actions or the behaviour that we are going test
+        Optional<Employee> employeeOptional = employeeService.getEmployeeById(2L);
+
+        // then - verify the output
+        assertThat(employeeOptional).isEmpty();
+        assertThat(cache.synchronous().estimatedSize()).isZero();
+    }
+
+    // JUnit test for invalidation on updateEmployee, patchEmployee and deleteEmployee
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for invalidation on updateEmployee, patchEmployee and deleteEmployee")
+    public void givenCachedEmployee_whenUpdateOrDeleteEmployee_thenInvalidate() {
+        // given - preconditions or setup
+        given(employeeServiceImpl.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        given(employeeServiceImpl.updateEmployee(any(Employee.class))).willAnswer(invocation -> invocation.getArgument(0));
+        employeeService.getEmployeeById(1L);
+
+        // when - actions or the behaviour that we are going test
+        employeeService.updateEmployee(employee);
+
+        // then - verify the output
+        assertThat(cache.getIfPresent(1L)).isNull();
+
+        // when - actions or the behaviour that we are going test
+        employeeService.getEmployeeById(1L);
+        employeeService.deleteEmployee(1L);
+
+        // then - verify the output
+        assertThat(cache.getIfPresent(1L)).isNull();
+
+        // when - actions or the behaviour that we are going test
+        employeeService.getEmployeeById(1L);
+        employeeService.patchEmployee(1L, null, EmployeePatch.builder().firstName("Ram").build());
+
+        // then - verify the output
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    // JUnit test for size bound and eviction counter
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for size bound and eviction counter")
+    public void givenMoreIdsThanMaximumSize_whenGetEmployeeById_thenEvict() {
+        // given - preconditions or setup
+        given(employeeServiceImpl.getEmployeeById(anyLong()))
+                .willAnswer(invocation -> Optional.of(employee.toBuilder().id(invocation.getArgument(0)).build()));
+
+        // when - actions or the behaviour that we are going test
+        for (long id = 1; id <= 10; id++) {
+            employeeService.getEmployeeById(id);
+        }
+        cache.synchronous().cleanUp();
+
+        // then - verify the output
+        assertThat(cache.synchronous().estimatedSize()).isEqualTo(2);
+        assertThat(employeeService.stats().evictionCount()).isEqualTo(8);
+    }
+
+    // JUnit test for read consistency with concurrent writes
+    @Test
+    @Order(6)
+    @DisplayName("JUnit test for read consistency with concurrent writes")
+    public void givenConcurrentUpdates_whenGetEmployeeById_thenNeverReturnStaleEmployee() throws Exception {
+        // given - preconditions or setup: a slow store where the version lives in the first name
+        Map<Long, Employee> store = new ConcurrentHashMap<>(Map.of(1L, employee.toBuilder().firstName("0").build()));
+        given(employeeServiceImpl.getEmployeeById(1L)).willAnswer(invocation -> {
+            Employee stored = store.get(1L);
+            Thread.sleep(0, 200_000);
+            return Optional.of(stored.toBuilder().build());
+        });
+        willAnswer(invocation -> {
+            Employee toUpdate = invocation.getArgument(0);
+            store.put(toUpdate.getId(), toUpdate.toBuilder().build());
+            return toUpdate;
+        }).given(employeeServiceImpl).updateEmployee(any(Employee.class));
+
+        int writes = 500;
+        AtomicLong lastCompletedWrite = new AtomicLong();
+        AtomicInteger staleReads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - actions or the behaviour that we are going test
+        Future<?> writer = executor.submit(() -> {
+            start.await();
+            for (long version = 1; version <= writes; version++) {
+                employeeService.updateEmployee(employee.toBuilder().firstName(String.valueOf(version)).build());
+                lastCompletedWrite.set(version);
+            }
+            return null;
+        });
+        for (int i = 0; i < 7; i++) {
+            executor.submit(() -> {
+                start.await();
+                while (!writer.isDone()) {
+                    long completedBeforeRead = lastCompletedWrite.get();
+                    long readVersion = Long.parseLong(employeeService.getEmployeeById(1L).get().getFirstName());
+                    if (readVersion < completedBeforeRead) {
+                        staleReads.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        writer.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // then - verify the output
+        assertThat(staleReads.get()).isZero();
+        assertThat(employeeService.getEmployeeById(1L).get().getFirstName()).isEqualTo(String.valueOf(writes));
+    }
+
+    // JUnit test for invalidation while a load is running
+    @Test
+    @Order(7)
+    @DisplayName("JUnit test for invalidation while a load is running")
+    public void givenLoadInFlight_whenUpdateEmployee_thenUpdateDoesNotWaitAndLoadIsNotCached() throws Exception {
+        // given - preconditions or setup: the first load blocks until released, later loads return the update
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        given(employeeServiceImpl.getEmployeeById(1L)).willAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                loadStarted.countDown();
+                releaseLoad.await();
+                return Optional.of(employee);
+            }
+            return Optional.of(employee.toBuilder().firstName("Ram").build());
+        });
+        given(employeeServiceImpl.updateEmployee(any(Employee.class))).willAnswer(invocation -> invocation.getArgument(0));
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Future<Optional<Employee>> staleRead = executor.submit(() -> employeeService.getEmployeeById(1L));
+        assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // when - actions or the behaviour that we are going test
+        Future<Employee> update = executor.submit(() -> employeeService.updateEmployee(employee));
+
+        // then - verify the output
+        assertThat(update.get(10, TimeUnit.SECONDS)).isNotNull();
+        assertThat(employeeService.getEmployeeById(1L).get().getFirstName()).isEqualTo("Ram");
+        releaseLoad.countDown();
+        assertThat(staleRead.get(10, TimeUnit.SECONDS).get().getFirstName()).isEqualTo("Ramesh");
+        assertThat(employeeService.getEmployeeById(1L).get().getFirstName()).isEqualTo("Ram");
+        assertThat(loads.get()).isEqualTo(2);
+        executor.shutdown();
+    }
+
+    // JUnit test for concurrent misses of the same id
+    @Test
+    @Order(8)
+    @DisplayName("JUnit test for concurrent misses of the same id")
+    public void givenConcurrentMissesForSameId_whenGetEmployeeById_thenOneLoadAndOwnCopies() throws Exception {
+        // given - preconditions or setup
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        given(employeeServiceImpl.getEmployeeById(anyLong())).willAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.<Long>getArgument(0) == 1L ? Optional.of(employee) : Optional.empty();
+        });
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        // when - actions or the behaviour that we are going test
+        List<Future<Optional<Employee>>> found = new ArrayList<>();
+        List<Future<Optional<Employee>>> missing = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            found.add(executor.submit(() -> employeeService.getEmployeeById(1L)));
+            missing.add(executor.submit(() -> employeeService.getEmployeeById(2L)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (employeeService.stats().requestCount() < 16) {
+            assertThat(System.nanoTime()).as("waiting for the callers").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // then - verify the output
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            employees.add(found.get(i).get(5, TimeUnit.SECONDS).orElseThrow());
+            assertThat(missing.get(i).get(5, TimeUnit.SECONDS)).isEmpty();
+        }
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(employees.stream().distinct().count()).isEqualTo(8);
+        executor.shutdown();
+    }
+}
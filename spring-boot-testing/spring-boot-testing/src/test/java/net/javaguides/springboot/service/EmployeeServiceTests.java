@@ -1,23 +1,55 @@
 package net.javaguides.springboot.service;
 
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.dto.EmployeeDelta;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.dto.EmployeePatch;
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.event.EmployeesDeletedEvent;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.exception.StaleVersionException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +58,12 @@ public class EmployeeServiceTests {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private EmployeeServiceImpl employeeService;
     private Employee employee;
@@ -45,9 +83,7 @@ public class EmployeeServiceTests {
         // given - preconditions or setup
 
 
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         System.out.println(employeeRepository);
         System.out.println(employeeService);
@@ -70,15 +106,33 @@ public class EmployeeServiceTests {
         // given - preconditions or setup
 
 
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate email",
+                new org.hibernate.exception.ConstraintViolationException("duplicate email", null, "PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_A")));
 
         // when - actions or the behaviour that we are going test
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceAlreadyExistsException.class, () -> {
             employeeService.saveEmployee(employee);
         });
 
         // then - verify the output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    // JUnit test for saveEmployee method with another constraint violation
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for saveEmployee method WHICH RETHROWS other violations")
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowsException() {
+        // given - preconditions or setup
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("null first name");
+        given(employeeRepository.saveAndFlush(employee)).willThrow(violation);
+
+        // when - actions or the behaviour that we are going test
+        DataIntegrityViolationException thrown = org.junit.jupiter.api.Assertions.assertThrows(
+                DataIntegrityViolationException.class, () -> employeeService.saveEmployee(employee));
+
+        // then - verify the output
+        assertThat(thrown).isSameAs(violation);
     }
 
     // JUnit test for getAllEmployees Method
@@ -86,14 +140,15 @@ public class EmployeeServiceTests {
     @Order(3)
     @DisplayName("JUnit test for getAllEmployees Method")
     public void givenEmployeesList_whenGetAllEmployees_thenReturnEmployeesList() {
-        Employee employee1 = Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
-        Employee employee2 = Employee.builder().id(3L).firstName("John").lastName("Cena").email("John@gmail.com").build();
+        EmployeeView employee1 = new EmployeeView(1L, "Ramesh", "Fadatare", "ramesh@gmail.com", 0L, null);
+        EmployeeView employee2 = new EmployeeView(2L, "Tony", "Stark", "tony@gmail.com", 0L, null);
+        EmployeeView employee3 = new EmployeeView(3L, "John", "Cena", "john@gmail.com", 0L, null);
         // given - preconditions or setup
-        given(employeeRepository.findAll())
-                .willReturn(java.util.List.of(employee, employee1, employee2));
+        given(employeeRepository.findAllViews())
+                .willReturn(java.util.List.of(employee1, employee2, employee3));
 
         // when - actions or the behaviour that we are going test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         // then - verify the output
         assertThat(employeeList.size()).isEqualTo(3);
@@ -105,11 +160,11 @@ public class EmployeeServiceTests {
     public void givenEmptyEmployeesList_whenGetAllEmployees_thenReturnEmptyEmployeesList() {
         // given - preconditions or setup
 
-        given(employeeRepository.findAll())
+        given(employeeRepository.findAllViews())
                 .willReturn(Collections.emptyList());
 
         // when - actions or the behaviour that we are going test
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         // then - verify the output
         assertThat(employeeList.size()).isEqualTo(0);
@@ -150,19 +205,326 @@ public class EmployeeServiceTests {
 
     }
 
+    // JUnit test for updateEmployee method with a concurrent update
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for updateEmployee method with a concurrent update")
+    public void givenConcurrentUpdate_whenUpdateEmployee_thenThrowsStaleVersionException(){
+        // given - preconditions or setup
+        employee.setVersion(3L);
+        given(employeeRepository.save(employee)).willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeService.updateEmployee(employee)).isInstanceOf(StaleVersionException.class)
+                .hasMessageContaining("version 3");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // JUnit test for updateEmployee method with a taken email
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for updateEmployee method with a taken email")
+    public void givenTakenEmail_whenUpdateEmployee_thenThrowsResourceAlreadyExistsException(){
+        // given - preconditions or setup
+        employee.setEmail("tony@gmail.com");
+        given(employeeRepository.save(employee)).willReturn(employee);
+        willThrow(new DataIntegrityViolationException("duplicate email",
+                new org.hibernate.exception.ConstraintViolationException("duplicate email", null, "PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_A")))
+                .given(employeeRepository).flush();
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeService.updateEmployee(employee)).isInstanceOf(ResourceAlreadyExistsException.class)
+                .hasMessageContaining("tony@gmail.com");
+        verifyNoInteractions(eventPublisher);
+    }
+
     // JUnit test for deleteEmployee Method
     @Test
     @DisplayName("JUnit test for deleteEmployee Method")
-    public void givenEmployeeID_whenDeleteEmployee_thenNothing(){
+    public void givenEmployeeID_whenDeleteEmployee_thenDeleteWithoutLoading(){
 
         long employeeId = 1L;
         // given - preconditions or setup
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
         // when - actions or the  behaviour that we are going test
-        employeeService.deleteEmployee(employeeId);
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        // then - verify the output
+        assertThat(deleted).isTrue();
+        verify(employeeRepository,times(1)).deleteEmployeeById(employeeId);
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    // JUnit test for getEmployeesPage method
+    @Test
+    @DisplayName("JUnit test for getEmployeesPage method")
+    public void givenFullPage_whenGetEmployeesPage_thenReturnPageWithNextCursor(){
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        given(employeeRepository.findNextPage(eq(0L), any())).willReturn(List.of(employee, employee1));
+
+        // when - actions or the behaviour that we are going test
+        EmployeePage employeePage = employeeService.getEmployeesPage(0L, 2);
+
+        // then - verify the output
+        assertThat(employeePage.getContent()).hasSize(2);
+        assertThat(EmployeePage.decodeCursor(employeePage.getNextCursor())).isEqualTo(2L);
+    }
+
+    // JUnit test for getEmployeesPage method - last page
+    @Test
+    @DisplayName("JUnit test for getEmployeesPage method - last page")
+    public void givenPartialPage_whenGetEmployeesPage_thenReturnPageWithoutNextCursor(){
+        // given - preconditions or setup
+        given(employeeRepository.findNextPage(eq(1L), any())).willReturn(List.of(employee));
+
+        // when - actions or the behaviour that we are going test
+        EmployeePage employeePage = employeeService.getEmployeesPage(1L, 2);
+
+        // then - verify the output
+        assertThat(employeePage.getContent()).hasSize(1);
+        assertThat(employeePage.getNextCursor()).isNull();
+    }
+
+    // JUnit test for streamAllEmployees method
+    @Test
+    @DisplayName("JUnit test for streamAllEmployees method")
+    public void givenEmployeesStream_whenStreamAllEmployees_thenConsumeAndDetachEachEmployee(){
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee1));
+
+        // when - actions or the behaviour that we are going test
+        List<Employee> consumed = new ArrayList<>();
+        employeeService.streamAllEmployees(consumed::add);
+
+        // then - verify the output
+        assertThat(consumed).containsExactly(employee, employee1);
+        verify(entityManager, times(1)).detach(employee);
+        verify(entityManager, times(1)).detach(employee1);
+    }
+
+    // JUnit test for saveEmployees method
+    @Test
+    @DisplayName("JUnit test for saveEmployees method")
+    public void givenEmployeesWithDuplicateEmails_whenSaveEmployees_thenSaveOnlyNewEmails(){
+        // given - preconditions or setup
+        Employee employee1 = Employee.builder().firstName("Tony").lastName("Stark").email("tony@gmail.com").build();
+        Employee employee2 = Employee.builder().firstName("John").lastName("Cena").email("john@gmail.com").build();
+        Employee employee3 = Employee.builder().firstName("Johnny").lastName("Cena").email("John@Gmail.com").build();
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(Set.of(employee.getEmail()));
+
+        // when - actions or the behaviour that we are going test
+        BulkImportResult result = employeeService.saveEmployees(List.of(employee, employee1, employee2, employee3));
+
+        // then - verify the output
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getSkippedEmails()).containsExactly("ramesh@gmail.com", "john@gmail.com");
+        verify(employeeRepository, times(1)).findExistingEmails(anyCollection());
+        verify(employeeRepository, times(1)).saveAll(List.of(employee1, employee2));
+        verify(employeeRepository, times(1)).flush();
+    }
+
+    // JUnit test for searchEmployeesByName method
+    @Test
+    @DisplayName("JUnit test for searchEmployeesByName method")
+    public void givenLastNamePrefixOnly_whenSearchEmployeesByName_thenSearchWithEmptyFirstNamePrefix(){
+        // given - preconditions or setup
+        PageRequest pageRequest = PageRequest.of(1, 10, Sort.by("lastName", "firstName", "id"));
+        EmployeeView employeeView = new EmployeeView(1L, "Ramesh", "Fadatare", "ramesh@gmail.com", 0L, null);
+        given(employeeRepository.findByLastNameStartingWithAndFirstNameStartingWith("Fad", "", pageRequest, EmployeeView.class))
+                .willReturn(new SliceImpl<>(List.of(employeeView), pageRequest, false));
+
+        // when - actions or the behaviour that we are going test
+        Slice<EmployeeView> employees = employeeService.searchEmployeesByName("Fad", null, 1, 10);
+
+        // then - verify the output
+        assertThat(employees.getContent()).containsExactly(employeeView);
+    }
+
+    // JUnit test for patchEmployee method
+    @Test
+    @DisplayName("JUnit test for patchEmployee method")
+    public void givenMatchingVersion_whenPatchEmployee_thenReturnNextVersion(){
+        // given - preconditions or setup
+        EmployeePatch patch = EmployeePatch.builder().email("Ram@Gmail.com").build();
+        given(employeeRepository.patchEmployee(1L, 3L, patch)).willReturn(1);
+
+        // when - actions or the behaviour that we are going test
+        long version = employeeService.patchEmployee(1L, 3L, patch);
 
         // then - verify the output
-        verify(employeeRepository,times(1)).deleteById(employeeId);
+        assertThat(version).isEqualTo(4L);
+        assertThat(patch.getEmail()).isEqualTo("ram@gmail.com");
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    // JUnit test for patchEmployee method with a stale or unknown id
+    @Test
+    @DisplayName("JUnit test for patchEmployee method, no row updated")
+    public void givenNoRowUpdated_whenPatchEmployee_thenThrowStaleVersionOrNotFound(){
+        // given - preconditions or setup
+        EmployeePatch patch = EmployeePatch.builder().firstName("Ram").build();
+        given(employeeRepository.patchEmployee(anyLong(), eq(3L), eq(patch))).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        given(employeeRepository.existsById(2L)).willReturn(false);
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeService.patchEmployee(1L, 3L, patch)).isInstanceOf(StaleVersionException.class);
+        assertThatThrownBy(() -> employeeService.patchEmployee(2L, 3L, patch)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // JUnit test for deleteEmployeesByEmailDomain method
+    @Test
+    @DisplayName("JUnit test for deleteEmployeesByEmailDomain method")
+    public void givenEmailDomainWithWildcards_whenDeleteEmployeesByEmailDomain_thenMatchLiteralSuffix(){
+        // given - preconditions or setup
+        given(employeeRepository.lockIdsByEmailLike("%@my\\_corp.com")).willReturn(List.of(1L, 2L, 3L));
+        given(employeeRepository.deleteEmployeesByIds(List.of(1L, 2L, 3L))).willReturn(3);
+
+        // when - actions or the behaviour that we are going test
+        int deleted = employeeService.deleteEmployeesByEmailDomain(" My_Corp.com ").getDeleted();
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(3);
+    }
+
+    // JUnit test for deleteEmployeesByEmailDomain with more matches than one DELETE takes
+    @Test
+    @DisplayName("JUnit test for deleteEmployeesByEmailDomain with more matches than one DELETE takes")
+    public void givenManyMatchingEmployees_whenDeleteEmployeesByEmailDomain_thenDeleteInChunks(){
+        // given - preconditions or setup
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        given(employeeRepository.lockIdsByEmailLike("%@example.com")).willReturn(ids);
+        given(employeeRepository.deleteEmployeesByIds(anyCollection()))
+                .willAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+
+        // when - actions or the behaviour that we are going test
+        int deleted = employeeService.deleteEmployeesByEmailDomain("example.com").getDeleted();
+
+        // then - verify the output
+        assertThat(deleted).isEqualTo(2500);
+        verify(employeeRepository).deleteEmployeesByIds(ids.subList(0, 1000));
+        verify(employeeRepository).deleteEmployeesByIds(ids.subList(1000, 2000));
+        verify(employeeRepository).deleteEmployeesByIds(ids.subList(2000, 2500));
+        verify(eventPublisher).publishEvent(new EmployeesDeletedEvent(ids.subList(2000, 2500)));
+    }
+
+    // JUnit test for the change events published by deletes
+    @Test
+    @DisplayName("JUnit test for the change events published by deletes")
+    public void givenDeletedRows_whenDeleteEmployees_thenPublishEventsOnlyForRemovedRows(){
+        // given - preconditions or setup
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
+        given(employeeRepository.deleteEmployeeById(2L)).willReturn(0);
+        given(employeeRepository.lockIdsByEmailLike("%@example.com")).willReturn(List.of(3L, 4L));
+        given(employeeRepository.deleteEmployeesByIds(List.of(3L, 4L))).willReturn(2);
+        given(employeeRepository.lockExistingIds(List.of(5L, 6L, 7L))).willReturn(List.of(6L));
+        given(employeeRepository.lockExistingIds(List.of(8L))).willReturn(List.of());
+
+        // when - actions or the behaviour that we are going test
+        employeeService.deleteEmployee(1L);
+        employeeService.deleteEmployee(2L);
+        employeeService.deleteEmployeesByEmailDomain("Example.com");
+        BulkDeleteResult byIds = employeeService.deleteEmployees(List.of(5L, 6L, 7L));
+        BulkDeleteResult noneFound = employeeService.deleteEmployees(List.of(8L));
+
+        // then - verify the output
+        verify(eventPublisher).publishEvent(new EmployeesDeletedEvent(List.of(1L)));
+        verify(eventPublisher).publishEvent(new EmployeesDeletedEvent(List.of(3L, 4L)));
+        verify(eventPublisher).publishEvent(new EmployeesDeletedEvent(List.of(6L)));
+        verifyNoMoreInteractions(eventPublisher);
+        verify(employeeRepository).deleteEmployeesByIds(List.of(6L));
+        assertThat(byIds.getDeletedIds()).containsExactly(6L);
+        assertThat(noneFound.getDeleted()).isZero();
+    }
+
+    // JUnit test for getEmployeesChangedSince method
+    @Test
+    @DisplayName("JUnit test for getEmployeesChangedSince method")
+    public void givenChangesAndDeletes_whenGetEmployeesChangedSince_thenPageByKeysetAndReturnTombstones(){
+        // given - preconditions or setup: one tombstone before the changed rows, one after them
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        Instant updatedAt = Instant.parse("2024-01-02T00:00:00Z");
+        EmployeeView employee1 = new EmployeeView(1L, "Ramesh", "Fadatare", "ramesh@gmail.com", 1L, updatedAt);
+        EmployeeView employee2 = new EmployeeView(2L, "Tony", "Stark", "tony@gmail.com", 0L, updatedAt);
+        given(employeeRepository.findChangedSince(eq(since), eq(7L), any(Instant.class), eq(PageRequest.ofSize(3))))
+                .willReturn(List.of(employee1, employee2));
+        given(employeeChangeRepository.findChangedSince(eq(EmployeeChange.Type.DELETED), eq(since), eq(7L),
+                any(Instant.class), eq(PageRequest.ofSize(3))))
+                .willReturn(List.of(tombstone(5L, since.plusSeconds(60)), tombstone(9L, updatedAt)));
+
+        // when - actions or the behaviour that we are going test
+        EmployeeDelta delta = employeeService.getEmployeesChangedSince(new EmployeeDelta.Token(since, 7L), 2);
+        EmployeeDelta upToDate = employeeService.getEmployeesChangedSince(new EmployeeDelta.Token(Instant.now(), 0L), 2);
+
+        // then - verify the output
+        assertThat(delta.changed()).containsExactly(employee1);
+        assertThat(delta.deleted()).containsExactly(5L);
+        assertThat(delta.hasMore()).isTrue();
+        assertThat(EmployeeDelta.Token.decode(delta.nextToken())).isEqualTo(new EmployeeDelta.Token(updatedAt, 1L));
+        assertThat(upToDate.changed()).isEmpty();
+        assertThat(upToDate.hasMore()).isFalse();
+    }
+
+    // JUnit test for getEmployeesChangedSince when a page holds nothing but tombstones
+    @Test
+    @DisplayName("JUnit test for getEmployeesChangedSince when a page holds nothing but tombstones")
+    public void givenMoreDeletesThanLimit_whenGetEmployeesChangedSince_thenTombstonesArePaged(){
+        // given - preconditions or setup
+        Instant deletedAt = Instant.parse("2024-01-02T00:00:00Z");
+        given(employeeRepository.findChangedSince(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(PageRequest.ofSize(3))))
+                .willReturn(List.of());
+        given(employeeChangeRepository.findChangedSince(eq(EmployeeChange.Type.DELETED), eq(Instant.EPOCH), eq(0L),
+                any(Instant.class), eq(PageRequest.ofSize(3))))
+                .willReturn(List.of(tombstone(3L, deletedAt), tombstone(4L, deletedAt), tombstone(8L, deletedAt)));
+
+        // when - actions or the behaviour that we are going test
+        EmployeeDelta delta = employeeService.getEmployeesChangedSince(EmployeeDelta.Token.START, 2);
+
+        // then - verify the output
+        assertThat(delta.changed()).isEmpty();
+        assertThat(delta.deleted()).containsExactly(3L, 4L);
+        assertThat(delta.hasMore()).isTrue();
+        assertThat(EmployeeDelta.Token.decode(delta.nextToken())).isEqualTo(new EmployeeDelta.Token(deletedAt, 4L));
+    }
+
+    // JUnit test for getEmployeesChangedSince with a write transaction still running
+    @Test
+    @DisplayName("JUnit test for getEmployeesChangedSince with a write transaction still running")
+    public void givenLongRunningWrite_whenGetEmployeesChangedSince_thenHorizonStaysBeforeItsStart() throws InterruptedException {
+        // given - preconditions or setup: a write transaction that has been open for longer than the settle time
+        Instant since = Instant.parse("2024-01-01T00:00:00Z");
+        ArgumentCaptor<Instant> until = ArgumentCaptor.forClass(Instant.class);
+        given(employeeRepository.findChangedSince(eq(since), eq(0L), until.capture(), any(PageRequest.class)))
+                .willReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> runningWrite;
+        Instant writeStarted = Instant.now();
+        try {
+            employeeService.deleteEmployee(1L);
+            runningWrite = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Thread.sleep(5_100);
+
+        // when - actions or the behaviour that we are going test
+        EmployeeDelta delta = employeeService.getEmployeesChangedSince(new EmployeeDelta.Token(since, 0L), 10);
+        runningWrite.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        employeeService.getEmployeesChangedSince(new EmployeeDelta.Token(since, 0L), 10);
+
+        // then - verify the output
+        assertThat(until.getAllValues().get(0)).isBefore(writeStarted);
+        assertThat(EmployeeDelta.Token.decode(delta.nextToken()).updatedAt()).isBefore(writeStarted);
+        assertThat(until.getAllValues().get(1)).isAfter(writeStarted);
+    }
+
+    private static EmployeeChange tombstone(long employeeId, Instant occurredAt) {
+        return EmployeeChange.builder().employeeId(employeeId).type(EmployeeChange.Type.DELETED).occurredAt(occurredAt).build();
     }
 }
@@ -0,0 +1,182 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeView;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.SingleFlightEmployeeService;
+import org.junit.jupiter.api.*;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SingleFlightEmployeeServiceTests {
+
+    private static final int CALLERS = 8;
+
+    private EmployeeService employeeServiceImpl;
+    private SingleFlightEmployeeService employeeService;
+    private ExecutorService executor;
+    private CountDownLatch release;
+    private AtomicInteger queries;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeServiceImpl = mock(EmployeeService.class, withSettings().stubOnly());
+        employeeService = new SingleFlightEmployeeService(employeeServiceImpl);
+        executor = Executors.newFixedThreadPool(CALLERS);
+        release = new CountDownLatch(1);
+        queries = new AtomicInteger();
+        employee = Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    // JUnit test for concurrent getEmployeeByEmail calls sharing one query
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for concurrent getEmployeeByEmail calls sharing one query")
+    public void givenConcurrentCallsForSameEmail_whenGetEmployeeByEmail_thenOneQueryAndOwnCopies() throws Exception {
+        // given - preconditions or setup
+        given(employeeServiceImpl.getEmployeeByEmail("ramesh@gmail.com")).willAnswer(invocation -> {
+            queries.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(employee);
+        });
+
+        // when - actions or the behaviour that we are going test
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> employeeService.getEmployeeByEmail("ramesh@gmail.com")));
+        }
+        waitUntil(() -> employeeService.coalescedCount("getEmployeeByEmail") == CALLERS - 1);
+        release.countDown();
+
+        // then - verify the output
+        List<Employee> employees = new ArrayList<>();
+        for (Future<Optional<Employee>> result : results) {
+            employees.add(result.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(employeeService.executedCount("getEmployeeByEmail")).isEqualTo(1);
+        assertThat(employees).extracting(Employee::getEmail).containsOnly("ramesh@gmail.com");
+        assertThat(employees).doesNotContain(employee);
+        assertThat(employees.stream().distinct().count()).isEqualTo(CALLERS);
+    }
+
+    // JUnit test for name lookups starting after a write
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for name lookups starting after a write")
+    public void givenRunningNameLookup_whenEmployeeSavedMeanwhile_thenLaterLookupQueriesAgain() throws Exception {
+        // given - preconditions or setup
+        Slice<EmployeeView> slice = new SliceImpl<>(List.of());
+        given(employeeServiceImpl.searchEmployeesByName("Fad", null, 0, 20)).willAnswer(invocation -> {
+            if (queries.incrementAndGet() == 1) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return slice;
+        });
+        Future<Slice<EmployeeView>> runningLookup = executor.submit(
+                () -> employeeService.searchEmployeesByName("Fad", null, 0, 20));
+        waitUntil(() -> queries.get() == 1);
+
+        // when - actions or the behaviour that we are going test
+        employeeService.saveEmployee(employee);
+        Slice<EmployeeView> laterLookup = employeeService.searchEmployeesByName("Fad", null, 0, 20);
+        release.countDown();
+
+        // then - verify the output
+        assertThat(runningLookup.get(5, TimeUnit.SECONDS)).isSameAs(slice);
+        assertThat(laterLookup).isSameAs(slice);
+        assertThat(queries.get()).isEqualTo(2);
+        assertThat(employeeService.coalescedCount("searchEmployeesByName")).isZero();
+    }
+
+    // JUnit test for a failing query shared by several callers
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for a failing query shared by several callers")
+    public void givenFailingQuery_whenGetEmployeeByEmailConcurrently_thenEveryCallerGetsTheException() throws Exception {
+        // given - preconditions or setup
+        given(employeeServiceImpl.getEmployeeByEmail("ramesh@gmail.com")).willAnswer(invocation -> {
+            queries.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("database unavailable");
+        });
+
+        // when - actions or the behaviour that we are going test
+        Future<Optional<Employee>> first = executor.submit(() -> employeeService.getEmployeeByEmail("ramesh@gmail.com"));
+        waitUntil(() -> queries.get() == 1);
+        Future<Optional<Employee>> second = executor.submit(() -> employeeService.getEmployeeByEmail("Ramesh@gmail.com"));
+        waitUntil(() -> employeeService.coalescedCount("getEmployeeByEmail") == 1);
+        release.countDown();
+
+        // then - verify the output
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    // JUnit test for a read pinned to the primary while the same lookup runs unpinned
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for a read pinned to the primary while the same lookup runs unpinned")
+    public void givenRunningUnpinnedLookup_whenPinnedCallerGetsEmployeeByEmail_thenItQueriesItself() throws Exception {
+        // given - preconditions or setup
+        ThreadLocal<Boolean> pinned = ThreadLocal.withInitial(() -> false);
+        employeeService = new SingleFlightEmployeeService(employeeServiceImpl, pinned::get);
+        Employee replicaEmployee = employee.toBuilder().firstName("Old").build();
+        given(employeeServiceImpl.getEmployeeByEmail("ramesh@gmail.com")).willAnswer(invocation -> {
+            queries.incrementAndGet();
+            if (pinned.get()) {
+                return Optional.of(employee);
+            }
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(replicaEmployee);
+        });
+        Future<Optional<Employee>> unpinned = executor.submit(() -> employeeService.getEmployeeByEmail("ramesh@gmail.com"));
+        waitUntil(() -> queries.get() == 1);
+
+        // when - actions or the behaviour that we are going test
+        Future<Optional<Employee>> pinnedLookup = executor.submit(() -> {
+            pinned.set(true);
+            return employeeService.getEmployeeByEmail("ramesh@gmail.com");
+        });
+        Optional<Employee> primaryEmployee = pinnedLookup.get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        // then - verify the output
+        assertThat(primaryEmployee).map(Employee::getFirstName).contains("Ramesh");
+        assertThat(unpinned.get(5, TimeUnit.SECONDS)).map(Employee::getFirstName).contains("Old");
+        assertThat(queries.get()).isEqualTo(2);
+        assertThat(employeeService.coalescedCount("getEmployeeByEmail")).isZero();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("waiting for the callers").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.BulkDeleteResult;
+import net.javaguides.springboot.dto.BulkImportResult;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.exception.StaleVersionException;
+import net.javaguides.springboot.exception.WriteRejectedException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.WriteBehindEmployeeService;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class WriteBehindEmployeeServiceTests {
+
+    // long enough that only size triggers, flush() and close() write anything during a test
+    private static final Duration NEVER = Duration.ofMinutes(10);
+
+    private EmployeeService employeeServiceImpl;
+    private WriteBehindEmployeeService employeeService;
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeServiceImpl = mock(EmployeeService.class);
+        given(employeeServiceImpl.updateEmployees(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        given(employeeServiceImpl.deleteEmployees(anyCollection()))
+                .willAnswer(invocation -> new BulkDeleteResult(List.copyOf(invocation.<Collection<Long>>getArgument(0))));
+        employee = Employee.builder().id(1L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeService.close();
+    }
+
+    // JUnit test for coalescing queued writes
+    @Test
+    @Order(1)
+    @DisplayName("JUnit test for coalescing queued writes")
+    @SuppressWarnings("unchecked")
+    public void givenRepeatedUpdates_whenFlush_thenWriteOnlyLastUpdatePerId() {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 100, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+
+        // when - actions or the behaviour that we are going test
+        employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build());
+        employeeService.updateEmployee(employee.toBuilder().firstName("Rama").build());
+        employeeService.updateEmployee(employee.toBuilder().id(2L).firstName("Tony").build());
+        int pendingBeforeFlush = employeeService.pendingCount();
+        employeeService.flush();
+
+        // then - verify the output
+        ArgumentCaptor<List<Employee>> written = ArgumentCaptor.forClass(List.class);
+        verify(employeeServiceImpl).updateEmployees(written.capture());
+        verify(employeeServiceImpl, never()).deleteEmployees(any());
+        assertThat(pendingBeforeFlush).isEqualTo(2);
+        assertThat(written.getValue()).extracting(Employee::getFirstName).containsExactly("Rama", "Tony");
+        assertThat(employeeService.pendingCount()).isZero();
+    }
+
+    // JUnit test for reads of queued writes
+    @Test
+    @Order(2)
+    @DisplayName("JUnit test for reads of queued writes")
+    public void givenQueuedUpdateAndDelete_whenGetEmployeeById_thenSeeQueuedState() {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 100, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        given(employeeServiceImpl.getEmployeeById(3L)).willReturn(Optional.of(employee.toBuilder().id(3L).build()));
+
+        // when - actions or the behaviour that we are going test
+        employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build());
+        employeeService.deleteEmployee(2L);
+
+        // then - verify the output
+        assertThat(employeeService.getEmployeeById(1L)).get().extracting(Employee::getFirstName).isEqualTo("Ram");
+        assertThat(employeeService.getEmployeeById(2L)).isEmpty();
+        assertThat(employeeService.getEmployeeById(3L)).isPresent();
+        verify(employeeServiceImpl, never()).getEmployeeById(1L);
+    }
+
+    // JUnit test for the batch size trigger and durable acknowledgement
+    @Test
+    @Order(3)
+    @DisplayName("JUnit test for the batch size trigger and durable acknowledgement")
+    public void givenDurableAcknowledgement_whenBatchSizeReached_thenCallersGetCommittedResult() throws Exception {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 2, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.DURABLE);
+        given(employeeServiceImpl.updateEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            return employees.stream().map(toUpdate -> toUpdate.toBuilder().version(toUpdate.getVersion() + 1).build()).toList();
+        });
+
+        // when - actions or the behaviour that we are going test
+        CompletableFuture<Employee> first = CompletableFuture.supplyAsync(() -> employeeService.updateEmployee(employee));
+        CompletableFuture<Employee> second = CompletableFuture.supplyAsync(
+                () -> employeeService.updateEmployee(employee.toBuilder().id(2L).build()));
+
+        // then - verify the output
+        assertThat(first.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1);
+        assertThat(second.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1);
+        verify(employeeServiceImpl, times(1)).updateEmployees(anyList());
+    }
+
+    // JUnit test for failures in a durable batch
+    @Test
+    @Order(4)
+    @DisplayName("JUnit test for failures in a durable batch")
+    public void givenOneFailingUpdate_whenBatchWritten_thenOnlyThatCallerFails() throws Exception {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 2, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.DURABLE);
+        given(employeeServiceImpl.updateEmployees(anyList())).willThrow(new StaleVersionException("stale"));
+        willAnswer(invocation -> {
+            Employee toUpdate = invocation.getArgument(0);
+            if (toUpdate.getId() == 2L) {
+                throw new StaleVersionException("Employee 2 is stale");
+            }
+            return toUpdate;
+        }).given(employeeServiceImpl).updateEmployee(any(Employee.class));
+
+        // when - actions or the behaviour that we are going test
+        CompletableFuture<Employee> first = CompletableFuture.supplyAsync(() -> employeeService.updateEmployee(employee));
+        CompletableFuture<Employee> second = CompletableFuture.supplyAsync(
+                () -> employeeService.updateEmployee(employee.toBuilder().id(2L).build()));
+
+        // then - verify the output
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StaleVersionException.class);
+    }
+
+    // JUnit test for batched creates
+    @Test
+    @Order(5)
+    @DisplayName("JUnit test for batched creates")
+    public void givenConcurrentCreates_whenBatchWritten_thenReturnGeneratedIdsAndRejectDuplicates() throws Exception {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 2, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        given(employeeServiceImpl.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.get(0).setId(10L);
+            return new BulkImportResult(1, List.of(employees.get(1).getEmail()));
+        });
+
+        // when - actions or the behaviour that we are going test
+        List<CompletableFuture<Employee>> creates = Stream.generate(() -> CompletableFuture.supplyAsync(
+                () -> employeeService.saveEmployee(employee.toBuilder().id(0).build()))).limit(2).toList();
+
+        // then - verify the output: whichever create was queued first wins, the other one is the duplicate
+        CompletableFuture.allOf(creates.toArray(CompletableFuture[]::new)).handle((ignored, failure) -> null)
+                .get(5, TimeUnit.SECONDS);
+        assertThat(creates).filteredOn(create -> !create.isCompletedExceptionally()).singleElement()
+                .satisfies(created -> assertThat(created.join().getId()).isEqualTo(10L));
+        assertThat(creates).filteredOn(CompletableFuture::isCompletedExceptionally).singleElement()
+                .satisfies(duplicate -> assertThatThrownBy(duplicate::join)
+                        .hasCauseInstanceOf(ResourceAlreadyExistsException.class));
+    }
+
+    // JUnit test for backpressure
+    @Test
+    @Order(6)
+    @DisplayName("JUnit test for backpressure")
+    public void givenFullQueue_whenUpdateEmployee_thenRejectNewIdsButCoalesceQueuedOnes() {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 1, 100, NEVER, Duration.ofMillis(50),
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        employeeService.updateEmployee(employee);
+
+        // when - actions or the behaviour that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> employeeService.updateEmployee(employee.toBuilder().id(2L).build()))
+                .isInstanceOf(WriteRejectedException.class);
+        assertThat(employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build()).getFirstName()).isEqualTo("Ram");
+        assertThat(employeeService.pendingCount()).isEqualTo(1);
+    }
+
+    // JUnit test for draining on close
+    @Test
+    @Order(7)
+    @DisplayName("JUnit test for draining on close")
+    public void givenQueuedWrites_whenClose_thenWriteThemAndRejectNewOnes() {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 100, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        employeeService.updateEmployee(employee);
+        employeeService.deleteEmployee(2L);
+
+        // when - actions or the behaviour that we are going test
+        employeeService.close();
+
+        // then - verify the output
+        verify(employeeServiceImpl).updateEmployees(anyList());
+        verify(employeeServiceImpl).deleteEmployees(List.of(2L));
+        assertThat(employeeService.pendingCount()).isZero();
+        assertThatThrownBy(() -> employeeService.deleteEmployee(3L)).isInstanceOf(WriteRejectedException.class);
+    }
+
+    // JUnit test for read-modify-write while an update is being written
+    @Test
+    @Order(8)
+    @DisplayName("JUnit test for read-modify-write while an update is being written")
+    @SuppressWarnings("unchecked")
+    public void givenUpdateBeingWritten_whenReadModifyWrite_thenQueuedUpdateGetsCommittedVersion() throws Exception {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 1, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeServiceImpl.updateEmployees(anyList())).willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            List<Employee> employees = invocation.getArgument(0);
+            return employees.stream().map(toUpdate -> toUpdate.toBuilder().version(toUpdate.getVersion() + 1).build()).toList();
+        });
+        employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build());
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when - actions or the behaviour that we are going test
+        Employee read = employeeService.getEmployeeById(1L).get();
+        read.setLastName("Kakar");
+        employeeService.updateEmployee(read);
+        release.countDown();
+        employeeService.flush();
+
+        // then - verify the output
+        ArgumentCaptor<List<Employee>> written = ArgumentCaptor.forClass(List.class);
+        verify(employeeServiceImpl, times(2)).updateEmployees(written.capture());
+        assertThat(written.getAllValues().get(1)).singleElement().satisfies(employee -> {
+            assertThat(employee.getFirstName()).isEqualTo("Ram");
+            assertThat(employee.getLastName()).isEqualTo("Kakar");
+            assertThat(employee.getVersion()).isEqualTo(1);
+        });
+    }
+
+    // JUnit test for an update based on an older read while an update is being written
+    @Test
+    @Order(9)
+    @DisplayName("JUnit test for an update based on an older read while an update is being written")
+    @SuppressWarnings("unchecked")
+    public void givenUpdateBeingWritten_whenUpdateFromOlderRead_thenKeepItsVersion() throws Exception {
+        // given - preconditions or setup: another client read version 0 before the first update was queued
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 1, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeServiceImpl.updateEmployees(anyList())).willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            List<Employee> employees = invocation.getArgument(0);
+            return employees.stream().map(toUpdate -> toUpdate.toBuilder().version(toUpdate.getVersion() + 1).build()).toList();
+        });
+        Employee olderRead = employee.toBuilder().build();
+        employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build());
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when - actions or the behaviour that we are going test
+        olderRead.setLastName("Kakar");
+        employeeService.updateEmployee(olderRead);
+        release.countDown();
+        employeeService.flush();
+
+        // then - verify the output: written with the version it was read at, so the store rejects it as stale
+        ArgumentCaptor<List<Employee>> written = ArgumentCaptor.forClass(List.class);
+        verify(employeeServiceImpl, times(2)).updateEmployees(written.capture());
+        assertThat(written.getAllValues().get(1)).singleElement().satisfies(employee -> {
+            assertThat(employee.getFirstName()).isEqualTo("Ramesh");
+            assertThat(employee.getVersion()).isZero();
+        });
+    }
+
+    // JUnit test for the version reported for queued updates
+    @Test
+    @Order(10)
+    @DisplayName("JUnit test for the version reported for queued updates")
+    @SuppressWarnings("unchecked")
+    public void givenQueuedAcknowledgement_whenReadModifyWriteTwice_thenCoalesceOnBaseVersion() {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 100, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+
+        // when - actions or the behaviour that we are going test
+        Employee queued = employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build());
+        Employee read = employeeService.getEmployeeById(1L).get();
+        read.setLastName("Kakar");
+        employeeService.updateEmployee(read);
+        employeeService.flush();
+
+        // then - verify the output
+        assertThat(queued.getVersion()).isEqualTo(1);
+        assertThat(read.getVersion()).isEqualTo(1);
+        ArgumentCaptor<List<Employee>> written = ArgumentCaptor.forClass(List.class);
+        verify(employeeServiceImpl).updateEmployees(written.capture());
+        assertThat(written.getValue()).singleElement().satisfies(employee -> {
+            assertThat(employee.getFirstName()).isEqualTo("Ram");
+            assertThat(employee.getLastName()).isEqualTo("Kakar");
+            assertThat(employee.getVersion()).isZero();
+        });
+    }
+
+    // JUnit test for the outcome of durable deletes
+    @Test
+    @Order(11)
+    @DisplayName("JUnit test for the outcome of durable deletes")
+    public void givenDurableAcknowledgement_whenDeleteExistingAndMissingEmployee_thenReportEachOutcome() throws Exception {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 2, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.DURABLE);
+        given(employeeServiceImpl.deleteEmployees(anyCollection())).willReturn(new BulkDeleteResult(List.of(5L)));
+
+        // when - actions or the behaviour that we are going test
+        CompletableFuture<Boolean> existing = CompletableFuture.supplyAsync(() -> employeeService.deleteEmployee(5L));
+        CompletableFuture<Boolean> missing = CompletableFuture.supplyAsync(() -> employeeService.deleteEmployee(6L));
+
+        // then - verify the output
+        assertThat(existing.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isFalse();
+        verify(employeeServiceImpl, times(1)).deleteEmployees(anyCollection());
+    }
+
+    // JUnit test for writes next to a queued delete
+    @Test
+    @Order(12)
+    @DisplayName("JUnit test for writes next to a queued delete")
+    public void givenQueuedUpdate_whenDeleteAndUpdateAgain_thenNeverCoalescedAcrossTheDelete() {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 100, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.QUEUED);
+        employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build());
+
+        // when - actions or the behaviour that we are going test
+        employeeService.deleteEmployee(1L);
+        Employee afterDelete = employee.toBuilder().firstName("Rama").build();
+        employeeService.flush();
+
+        // then - verify the output
+        InOrder inOrder = inOrder(employeeServiceImpl);
+        inOrder.verify(employeeServiceImpl).updateEmployees(anyList());
+        inOrder.verify(employeeServiceImpl).deleteEmployees(List.of(1L));
+        employeeService.deleteEmployee(1L);
+        assertThatThrownBy(() -> employeeService.updateEmployee(afterDelete)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // JUnit test for durable updates of the same employee
+    @Test
+    @Order(13)
+    @DisplayName("JUnit test for durable updates of the same employee")
+    public void givenDurableAcknowledgement_whenConcurrentUpdatesOfOneEmployee_thenEachWrittenOnItsOwn() throws Exception {
+        // given - preconditions or setup
+        employeeService = new WriteBehindEmployeeService(employeeServiceImpl, 100, 100, NEVER, Duration.ZERO,
+                WriteBehindEmployeeService.Acknowledgement.DURABLE);
+        willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.get(0).getFirstName().equals("Tony")) {
+                throw new StaleVersionException("Employee 1 is stale");
+            }
+            return employees;
+        }).given(employeeServiceImpl).updateEmployees(anyList());
+        given(employeeServiceImpl.updateEmployee(any(Employee.class))).willThrow(new StaleVersionException("Employee 1 is stale"));
+        CompletableFuture<Employee> first = CompletableFuture.supplyAsync(
+                () -> employeeService.updateEmployee(employee.toBuilder().firstName("Ram").build()));
+        awaitPending();
+
+        // when - actions or the behaviour that we are going test: the second update has the first one written
+        CompletableFuture<Employee> second = CompletableFuture.supplyAsync(
+                () -> employeeService.updateEmployee(employee.toBuilder().firstName("Tony").build()));
+        Employee firstResult = first.get(5, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!second.isDone() && System.nanoTime() < deadline) {
+            employeeService.flush();
+            Thread.sleep(1);
+        }
+
+        // then - verify the output: both read version 0, the second one loses instead of being told it won
+        assertThat(firstResult.getFirstName()).isEqualTo("Ram");
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StaleVersionException.class);
+        verify(employeeServiceImpl, times(2)).updateEmployees(anyList());
+    }
+
+    private void awaitPending() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (employeeService.pendingCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}